@@ -0,0 +1,91 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.entity.ImageVariant;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversão entidade -> DTO e serialização JSON da resposta de GET /api/memory/{slug}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemoryPageMappingBenchmark {
+
+    private static final String API_URL = "https://example.supabase.co/storage/v1/object/public/memories/images/";
+
+    // Tamanho do dedicatedText em caracteres: bilhete curto, carta, texto longo.
+    @Param({"200", "2000", "20000"})
+    public int dedicatedTextLength;
+
+    @Param({"1", "10"})
+    public int imageCount;
+
+    private MemoryPage page;
+    private MemoryPageResponse response;
+    // Mesma configuração base do ObjectMapper do Spring Boot (JavaTimeModule, datas em ISO-8601).
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    @Setup
+    public void setUp() {
+        page = new MemoryPage();
+        page.setId(42L);
+        page.setSlug("feliz-aniversario-joao");
+        page.setTitle("Feliz aniversário!");
+        page.setDedicatedText(dedicatedText(dedicatedTextLength));
+        List<String> imageUrls = new ArrayList<>();
+        Map<String, List<ImageVariant>> variants = new HashMap<>();
+        for (int i = 0; i < imageCount; i++) {
+            String url = API_URL + "feliz-aniversario-joao_" + i + ".jpg";
+            imageUrls.add(url);
+            variants.put(url, List.of(new ImageVariant(320, url + "_w320"), new ImageVariant(640, url + "_w640"),
+                    new ImageVariant(1280, url + "_w1280")));
+        }
+        page.setImageUrls(imageUrls);
+        page.setImageVariants(variants);
+        page.setMusicUrl(API_URL.replace("images/", "music/") + "musica.mp3");
+        page.setTargetDate(LocalDateTime.of(2025, 12, 25, 0, 0));
+        page.setCreationDate(LocalDateTime.of(2025, 1, 10, 18, 30));
+        page.setLastModifiedDate(LocalDateTime.of(2025, 1, 11, 9, 15));
+        page.setViewCount(1234);
+        page.setVersion(3);
+        response = MemoryPageServiceImpl.mapToDto(page);
+    }
+
+    @Benchmark
+    public MemoryPageResponse mapToDto() {
+        return MemoryPageServiceImpl.mapToDto(page);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    private static String dedicatedText(int length) {
+        String paragraph = "Lembro do dia em que nos conhecemos, da conversa até tarde e do café frio. ";
+        StringBuilder text = new StringBuilder(length);
+        while (text.length() < length) {
+            text.append(paragraph);
+        }
+        return text.substring(0, length);
+    }
+}
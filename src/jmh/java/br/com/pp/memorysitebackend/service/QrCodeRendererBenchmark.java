@@ -0,0 +1,56 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.QrCodeFormat;
+import br.com.pp.memorysitebackend.dto.QrCodeImage;
+import com.google.zxing.WriterException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderização de QR Code sem cache (PNG e SVG) e o caminho com cache já populado.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QrCodeRendererBenchmark {
+
+    private static final String SLUG = "feliz-aniversario-joao";
+    private static final String PAGE_URL = "https://memory-site-frontend.onrender.com/m/" + SLUG;
+
+    @Param({"250", "1000"})
+    public int size;
+
+    private QrCodeRenderer renderer;
+
+    @Setup
+    public void setUp() throws IOException {
+        renderer = new QrCodeRenderer(DataSize.ofMegabytes(16), new SimpleMeterRegistry());
+        renderer.render(SLUG, PAGE_URL, size, QrCodeFormat.PNG);
+    }
+
+    @Benchmark
+    public byte[] renderPng() throws IOException {
+        return QrCodeRenderer.renderPng(PAGE_URL, size);
+    }
+
+    @Benchmark
+    public byte[] renderSvg() throws WriterException {
+        return QrCodeRenderer.renderSvg(PAGE_URL, size);
+    }
+
+    @Benchmark
+    public QrCodeImage renderCached() throws IOException {
+        return renderer.render(SLUG, PAGE_URL, size, QrCodeFormat.PNG);
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SlugAllocatorBenchmark {
+
+    private static final String DEDICATED_TEXT_PREFIX = "Feliz aniversário, João! Lembra";
+
+    private final SlugAllocator sanitizer = new SlugAllocator(null, new SimpleMeterRegistry());
+
+    @State(Scope.Benchmark)
+    public static class Allocation {
+
+        // Quantos slugs ("base" e "base-N") já existem para a base pedida.
+        @Param({"0", "10", "1000"})
+        public int takenSlugs;
+
+        private SlugAllocator slugAllocator;
+
+        @Setup
+        public void setUp() {
+            String base = new SlugAllocator(null, new SimpleMeterRegistry()).sanitizeSlug(DEDICATED_TEXT_PREFIX);
+            List<String> taken = new ArrayList<>();
+            if (takenSlugs > 0) {
+                taken.add(base);
+                for (int i = 1; i < takenSlugs; i++) {
+                    taken.add(base + "-" + i);
+                }
+            }
+            slugAllocator = new SlugAllocator(stubRepository(taken), new SimpleMeterRegistry());
+        }
+    }
+
+    @Benchmark
+    public String sanitizeSlug() {
+        return sanitizer.sanitizeSlug(DEDICATED_TEXT_PREFIX);
+    }
+
+    @Benchmark
+    public String generateUniqueSlug(Allocation allocation) {
+        return allocation.slugAllocator.generateUniqueSlug(DEDICATED_TEXT_PREFIX);
+    }
+
+    // Só findSlugsMatchingBase é usado pelo SlugAllocator; qualquer outra chamada indica erro no benchmark.
+    private static MemoryPageRepository stubRepository(List<String> takenSlugs) {
+        return (MemoryPageRepository) Proxy.newProxyInstance(
+                MemoryPageRepository.class.getClassLoader(),
+                new Class<?>[]{MemoryPageRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findSlugsMatchingBase")) {
+                        return takenSlugs;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.pp.memorysitebackend.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Guarda todas as latências de uma operação; os percentis são calculados uma única vez, no relatório final.
+ */
+final class LatencyRecorder {
+
+    private final ConcurrentLinkedQueue<Long> latenciesNanos = new ConcurrentLinkedQueue<>();
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    void recordSuccess(long latencyNanos) {
+        latenciesNanos.add(latencyNanos);
+    }
+
+    void recordError(long latencyNanos) {
+        latenciesNanos.add(latencyNanos);
+        errors.incrementAndGet();
+    }
+
+    void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    Summary summarize(Operation operation, double elapsedSeconds) {
+        long[] sorted = latenciesNanos.stream().mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        return new Summary(
+                operation.route(),
+                sorted.length,
+                errors.get(),
+                dropped.get(),
+                elapsedSeconds > 0 ? sorted.length / elapsedSeconds : 0,
+                percentileMillis(sorted, 0.50),
+                percentileMillis(sorted, 0.99),
+                sorted.length > 0 ? sorted[sorted.length - 1] / 1_000_000.0 : 0);
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    record Summary(String route, long requests, long errors, long dropped, double throughputPerSecond,
+                   double p50Millis, double p99Millis, double maxMillis) {
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.pp.memorysitebackend.loadtest;
+
+import br.com.pp.memorysitebackend.MemorySiteBackendApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Sobe a aplicação completa (perfil {@code loadtest}) com Postgres embarcado e S3 em memória,
+ * executa o {@link WorkloadGenerator} e imprime p50/p99 e vazão por rota.
+ * Com {@code loadtest.target-url} a carga vai para uma instância já em execução. Para comparar os modos de
+ * threads, rode uma vez sem e outra com {@code loadtest.virtual-threads=true}: o relatório registra o modo em uso.
+ */
+public final class LoadTestRunner {
+
+    private LoadTestRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        if (!settings.targetUrl().isBlank()) {
+            report(settings, settings.virtualThreads() ? Threading.VIRTUAL : Threading.PLATFORM,
+                    new WorkloadGenerator(URI.create(settings.targetUrl()), settings).run());
+            return;
+        }
+
+        try (EmbeddedPostgres postgres = EmbeddedPostgres.start();
+             ConfigurableApplicationContext context = startApplication(postgres, settings)) {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            URI baseUri = URI.create("http://localhost:" + port);
+            Threading threading = Threading.VIRTUAL.isActive(context.getEnvironment()) ? Threading.VIRTUAL : Threading.PLATFORM;
+            if (settings.virtualThreads() && threading == Threading.PLATFORM) {
+                System.out.printf("Virtual threads pedidas, mas a JVM é Java %s: rodando com threads de plataforma%n",
+                        Runtime.version().feature());
+            }
+            System.out.printf("Aplicação de carga em %s (threads: %s)%n", baseUri, threading);
+            report(settings, threading, new WorkloadGenerator(baseUri, settings).run());
+        }
+    }
+
+    private static ConfigurableApplicationContext startApplication(EmbeddedPostgres postgres, LoadTestSettings settings) {
+        // Argumentos de linha de comando têm precedência sobre os ${JDBC_DATABASE_URL} do application.properties.
+        return new SpringApplicationBuilder(MemorySiteBackendApplication.class)
+                .profiles(settings.virtualThreads() ? new String[]{"loadtest", "virtual-threads"} : new String[]{"loadtest"})
+                .run("--spring.datasource.url=" + postgres.getJdbcUrl("postgres", "postgres"),
+                        "--spring.datasource.username=postgres",
+                        "--spring.datasource.password=postgres",
+                        "--loadtest.storage.put-latency-ms=" + settings.putLatency().toMillis());
+    }
+
+    private static void report(LoadTestSettings settings, Threading threading, List<LatencyRecorder.Summary> summaries) throws IOException {
+        System.out.printf("%n%-34s %9s %7s %8s %10s %9s %9s %9s%n",
+                "rota", "reqs", "erros", "descart.", "req/s", "p50 ms", "p99 ms", "máx ms");
+        for (LatencyRecorder.Summary summary : summaries) {
+            System.out.printf(Locale.ROOT, "%-34s %9d %7d %8d %10.1f %9.2f %9.2f %9.2f%n",
+                    summary.route(), summary.requests(), summary.errors(), summary.dropped(),
+                    summary.throughputPerSecond(), summary.p50Millis(), summary.p99Millis(), summary.maxMillis());
+        }
+
+        File reportFile = new File(settings.reportPath());
+        File parent = reportFile.getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(reportFile, Map.of(
+                "durationSeconds", settings.duration().toSeconds(),
+                "threading", threading,
+                "ratesPerSecond", settings.ratesPerSecond(),
+                "results", summaries));
+        System.out.printf("%nResultado salvo em %s%n", reportFile.getAbsolutePath());
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.pp.memorysitebackend.loadtest;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Parâmetros da carga, lidos de propriedades de sistema {@code loadtest.*}
+ * (no Gradle: {@code ./gradlew loadTest -Ploadtest.rate.get=200 -Ploadtest.duration=120}).
+ *
+ * @param targetUrl     URL de uma instância já em execução; vazio sobe a aplicação localmente
+ * @param duration      tempo de medição
+ * @param warmup        tempo de aquecimento (requisições não entram no relatório)
+ * @param ratesPerSecond requisições por segundo de cada operação (carga em malha aberta)
+ * @param maxInFlight   limite de requisições simultâneas; acima disso a requisição é descartada e contada
+ * @param seedPages     páginas criadas antes do aquecimento para os GETs, QR Codes e uploads
+ * @param putLatency    latência simulada de cada envio ao S3 em memória
+ * @param virtualThreads sobe a aplicação também com o perfil {@code virtual-threads} (só tem efeito em Java 21+)
+ * @param reportPath    arquivo JSON com o resultado
+ */
+record LoadTestSettings(String targetUrl,
+                        Duration duration,
+                        Duration warmup,
+                        Map<Operation, Double> ratesPerSecond,
+                        int maxInFlight,
+                        int seedPages,
+                        Duration putLatency,
+                        boolean virtualThreads,
+                        String reportPath) {
+
+    static LoadTestSettings fromSystemProperties() {
+        Map<Operation, Double> rates = new EnumMap<>(Operation.class);
+        rates.put(Operation.CREATE, doubleProperty("loadtest.rate.create", 5));
+        rates.put(Operation.GET_BY_SLUG, doubleProperty("loadtest.rate.get", 100));
+        rates.put(Operation.QR_CODE, doubleProperty("loadtest.rate.qrcode", 10));
+        rates.put(Operation.IMAGE_UPLOAD, doubleProperty("loadtest.rate.upload", 1));
+        return new LoadTestSettings(
+                System.getProperty("loadtest.target-url", ""),
+                Duration.ofSeconds(Long.getLong("loadtest.duration", 60)),
+                Duration.ofSeconds(Long.getLong("loadtest.warmup", 10)),
+                rates,
+                Integer.getInteger("loadtest.max-in-flight", 256),
+                Integer.getInteger("loadtest.seed-pages", 50),
+                Duration.ofMillis(Long.getLong("loadtest.storage.put-latency-ms", 0)),
+                Boolean.getBoolean("loadtest.virtual-threads"),
+                System.getProperty("loadtest.report", "build/reports/loadtest/results.json"));
+    }
+
+    private static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+}
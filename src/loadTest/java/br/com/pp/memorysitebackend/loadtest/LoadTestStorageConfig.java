@@ -0,0 +1,28 @@
+package br.com.pp.memorysitebackend.loadtest;
+
+import br.com.pp.memorysitebackend.support.InMemoryS3Client;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.time.Duration;
+
+/**
+ * Substitui o S3 do Supabase por um armazenamento em memória no perfil {@code loadtest}.
+ */
+@Configuration
+@Profile("loadtest")
+public class LoadTestStorageConfig {
+
+    @Bean
+    @Primary
+    public S3Client inMemoryS3Client(@Value("${loadtest.storage.put-latency-ms:0}") long putLatencyMs) {
+        InMemoryS3Client s3Client = new InMemoryS3Client();
+        Duration putLatency = Duration.ofMillis(putLatencyMs);
+        s3Client.setPutLatency(call -> putLatency);
+        return s3Client;
+    }
+}
@@ -0,0 +1,22 @@
+package br.com.pp.memorysitebackend.loadtest;
+
+/**
+ * Operações da carga mista, identificadas pela rota do MemoryPageController (sem o slug).
+ */
+enum Operation {
+
+    CREATE("POST /api/memory"),
+    GET_BY_SLUG("GET /api/memory/{slug}"),
+    QR_CODE("GET /api/memory/{slug}/qrcode"),
+    IMAGE_UPLOAD("POST /api/memory/{slug}/images");
+
+    private final String route;
+
+    Operation(String route) {
+        this.route = route;
+    }
+
+    String route() {
+        return route;
+    }
+}
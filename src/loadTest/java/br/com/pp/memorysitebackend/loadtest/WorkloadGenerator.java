@@ -0,0 +1,233 @@
+package br.com.pp.memorysitebackend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera a carga mista em malha aberta: cada operação é disparada na sua taxa fixa, independentemente
+ * do tempo de resposta, para que lentidão do servidor apareça na latência em vez de reduzir a carga.
+ */
+final class WorkloadGenerator {
+
+    private static final int MAX_IMAGES_PER_PAGE = 7;
+    private static final String[] OPENINGS = {
+            "Feliz aniversário", "Feliz dia dos namorados", "Para minha mãe", "Parabéns pela formatura", "Bodas de prata"};
+    private static final String MULTIPART_BOUNDARY = "loadtest-" + UUID.randomUUID();
+
+    private final URI baseUri;
+    private final LoadTestSettings settings;
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Semaphore inFlight;
+    private final byte[] uploadBody;
+
+    private final List<String> slugs = new CopyOnWriteArrayList<>();
+    // Páginas que ainda aceitam imagens, com a quantidade já enviada.
+    private final ConcurrentLinkedDeque<Map.Entry<String, AtomicInteger>> uploadCandidates = new ConcurrentLinkedDeque<>();
+
+    private volatile Map<Operation, LatencyRecorder> recorders = newRecorders();
+
+    WorkloadGenerator(URI baseUri, LoadTestSettings settings) {
+        this.baseUri = baseUri;
+        this.settings = settings;
+        this.inFlight = new Semaphore(settings.maxInFlight());
+        this.uploadBody = multipartBody(sampleJpeg());
+    }
+
+    /**
+     * Cria as páginas iniciais, aquece e mede. Devolve um resumo por operação.
+     */
+    List<LatencyRecorder.Summary> run() throws InterruptedException {
+        seedPages();
+        runPhase(settings.warmup());
+        recorders = newRecorders();
+        long start = System.nanoTime();
+        runPhase(settings.duration());
+        double elapsedSeconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        List<LatencyRecorder.Summary> summaries = new ArrayList<>();
+        recorders.forEach((operation, recorder) -> summaries.add(recorder.summarize(operation, elapsedSeconds)));
+        return summaries;
+    }
+
+    private void seedPages() {
+        List<CompletableFuture<?>> creations = new ArrayList<>();
+        for (int i = 0; i < settings.seedPages(); i++) {
+            creations.add(httpClient.sendAsync(createRequest(), HttpResponse.BodyHandlers.ofString())
+                    .thenAccept(this::rememberCreatedPage));
+        }
+        CompletableFuture.allOf(creations.toArray(CompletableFuture[]::new)).join();
+        if (slugs.isEmpty()) {
+            throw new IllegalStateException("Nenhuma página criada na preparação da carga; verifique a aplicação.");
+        }
+    }
+
+    private void runPhase(Duration phase) throws InterruptedException {
+        if (phase.isZero()) {
+            return;
+        }
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(settings.ratesPerSecond().size());
+        settings.ratesPerSecond().forEach((operation, rate) -> {
+            if (rate > 0) {
+                long periodNanos = (long) (1_000_000_000L / rate);
+                scheduler.scheduleAtFixedRate(() -> fire(operation), 0, periodNanos, TimeUnit.NANOSECONDS);
+            }
+        });
+        Thread.sleep(phase.toMillis());
+        scheduler.shutdownNow();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+        // Espera as requisições em andamento para que entrem na fase correta.
+        inFlight.acquire(settings.maxInFlight());
+        inFlight.release(settings.maxInFlight());
+    }
+
+    private void fire(Operation operation) {
+        LatencyRecorder recorder = recorders.get(operation);
+        HttpRequest request = requestFor(operation);
+        if (request == null || !inFlight.tryAcquire()) {
+            recorder.recordDropped();
+            return;
+        }
+        long start = System.nanoTime();
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> {
+                    long latency = System.nanoTime() - start;
+                    inFlight.release();
+                    if (error != null || response.statusCode() >= 400) {
+                        recorder.recordError(latency);
+                        return;
+                    }
+                    recorder.recordSuccess(latency);
+                    if (operation == Operation.CREATE) {
+                        rememberCreatedPage(response);
+                    }
+                });
+    }
+
+    private HttpRequest requestFor(Operation operation) {
+        return switch (operation) {
+            case CREATE -> createRequest();
+            case GET_BY_SLUG -> HttpRequest.newBuilder(baseUri.resolve("/api/memory/" + randomSlug())).GET().build();
+            case QR_CODE -> HttpRequest.newBuilder(baseUri.resolve("/api/memory/" + randomSlug() + "/qrcode?size=250"))
+                    .GET().build();
+            case IMAGE_UPLOAD -> uploadRequest();
+        };
+    }
+
+    // O slug sai do início do dedicatedText; poucos começos distintos exercitam também as colisões de slug.
+    private HttpRequest createRequest() {
+        String opening = OPENINGS[ThreadLocalRandom.current().nextInt(OPENINGS.length)];
+        Map<String, Object> body = Map.of(
+                "title", "Carga " + ThreadLocalRandom.current().nextInt(1_000_000),
+                "dedicatedText", opening + " " + ThreadLocalRandom.current().nextInt(100_000) + ". "
+                        + "Um texto de dedicatória de tamanho realista. ".repeat(20),
+                "targetDate", LocalDateTime.now().plusYears(1).withNano(0).toString());
+        try {
+            return HttpRequest.newBuilder(baseUri.resolve("/api/memory"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private HttpRequest uploadRequest() {
+        Map.Entry<String, AtomicInteger> candidate = uploadCandidates.poll();
+        if (candidate == null) {
+            return null;
+        }
+        if (candidate.getValue().incrementAndGet() < MAX_IMAGES_PER_PAGE) {
+            uploadCandidates.add(candidate);
+        }
+        return HttpRequest.newBuilder(baseUri.resolve("/api/memory/" + candidate.getKey() + "/images"))
+                .header("Content-Type", "multipart/form-data; boundary=" + MULTIPART_BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(uploadBody))
+                .build();
+    }
+
+    private void rememberCreatedPage(HttpResponse<String> response) {
+        if (response.statusCode() != 201 && response.statusCode() != 200) {
+            return;
+        }
+        try {
+            JsonNode page = objectMapper.readTree(response.body());
+            String slug = page.path("slug").asText();
+            slugs.add(slug);
+            uploadCandidates.add(Map.entry(slug, new AtomicInteger()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String randomSlug() {
+        return slugs.get(ThreadLocalRandom.current().nextInt(slugs.size()));
+    }
+
+    private static Map<Operation, LatencyRecorder> newRecorders() {
+        Map<Operation, LatencyRecorder> recorders = new EnumMap<>(Operation.class);
+        for (Operation operation : Operation.values()) {
+            recorders.put(operation, new LatencyRecorder());
+        }
+        return recorders;
+    }
+
+    // Foto de celular típica em tamanho (1600x1200), para exercitar upload e geração de variantes.
+    private static byte[] sampleJpeg() {
+        BufferedImage image = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < 200; i++) {
+            graphics.setColor(new Color(random.nextInt(0xFFFFFF)));
+            graphics.fillOval(random.nextInt(1600), random.nextInt(1200), 40 + random.nextInt(200), 40 + random.nextInt(200));
+        }
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try {
+            ImageIO.write(image, "jpg", output);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] multipartBody(byte[] jpeg) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        String header = "--" + MULTIPART_BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"files\"; filename=\"foto.jpg\"\r\n"
+                + "Content-Type: image/jpeg\r\n\r\n";
+        body.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+        body.writeBytes(jpeg);
+        body.writeBytes(("\r\n--" + MULTIPART_BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return body.toByteArray();
+    }
+}
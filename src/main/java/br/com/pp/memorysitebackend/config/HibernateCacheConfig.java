@@ -0,0 +1,70 @@
+package br.com.pp.memorysitebackend.config;
+
+import org.ehcache.config.CacheConfiguration;
+import org.ehcache.config.builders.CacheConfigurationBuilder;
+import org.ehcache.config.builders.ExpiryPolicyBuilder;
+import org.ehcache.config.builders.ResourcePoolsBuilder;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.io.Serializable;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Cache de segundo nível do Hibernate (JCache sobre Ehcache). As regiões são criadas aqui, e não num ehcache.xml,
+ * para que o tamanho em heap, o off-heap opcional e o TTL venham das propriedades {@code app.cache.l2.*}.
+ */
+@Configuration
+public class HibernateCacheConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(HibernateCacheConfig.class);
+
+    public static final String MEMORY_PAGE_REGION = "memoryPages";
+    public static final String MEMORY_PAGE_SLUG_REGION = "memoryPageSlugs";
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(@Value("${app.cache.l2.heap-entries:10000}") long heapEntries,
+                                              @Value("${app.cache.l2.off-heap:0MB}") DataSize offHeap,
+                                              @Value("${app.cache.l2.slug-heap-entries:10000}") long slugHeapEntries,
+                                              @Value("${app.cache.l2.ttl:10m}") Duration ttl) {
+        Map<String, CacheConfiguration<?, ?>> regions = new HashMap<>();
+        regions.put(MEMORY_PAGE_REGION, region(heapEntries, offHeap, ttl));
+        regions.put(MEMORY_PAGE_SLUG_REGION, region(slugHeapEntries, DataSize.ofBytes(0), ttl));
+
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create("memory-site:hibernate-l2"),
+                new DefaultConfiguration(regions, getClass().getClassLoader()));
+        log.info("Cache de segundo nível configurado. Entradas em heap: {}, off-heap: {}, TTL: {}", heapEntries, offHeap, ttl);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    // Entradas em off-heap são serializadas; 0 mantém a região só no heap.
+    private static CacheConfiguration<Serializable, Serializable> region(long heapEntries, DataSize offHeap, Duration ttl) {
+        ResourcePoolsBuilder resources = ResourcePoolsBuilder.heap(heapEntries);
+        if (offHeap.toMegabytes() > 0) {
+            resources = resources.offheap(offHeap.toMegabytes(), MemoryUnit.MB);
+        }
+        return CacheConfigurationBuilder.newCacheConfigurationBuilder(Serializable.class, Serializable.class, resources)
+                .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(ttl))
+                .build();
+    }
+}
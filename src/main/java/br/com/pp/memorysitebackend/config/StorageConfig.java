@@ -0,0 +1,61 @@
+package br.com.pp.memorysitebackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class StorageConfig {
+
+    @Value("${app.storage.upload.pool-size:16}")
+    private int uploadPoolSize;
+
+    @Value("${app.images.derivatives.pool-size:2}")
+    private int derivativePoolSize;
+
+    @Value("${app.images.derivatives.queue-capacity:100}")
+    private int derivativeQueueCapacity;
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public ThreadPoolTaskExecutor storageUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(uploadPoolSize);
+        executor.setMaxPoolSize(uploadPoolSize);
+        executor.setQueueCapacity(uploadPoolSize * 4);
+        // Com a fila cheia, o upload roda na própria thread da requisição em vez de falhar.
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("storage-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    // Com spring.threads.virtual.enabled (Java 21+): uma virtual thread por envio. O limite mantém o mesmo
+    // número de envios simultâneos do pool acima e, ao ser atingido, bloqueia quem envia em vez de enfileirar.
+    @Bean(name = "storageUploadExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public SimpleAsyncTaskExecutor virtualStorageUploadExecutor() {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("storage-upload-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(uploadPoolSize);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+    // Poucas threads: cada decodificação pode ocupar dezenas de MB de heap.
+    @Bean
+    public ThreadPoolTaskExecutor imageDerivativeExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(derivativePoolSize);
+        executor.setMaxPoolSize(derivativePoolSize);
+        executor.setQueueCapacity(derivativeQueueCapacity);
+        executor.setThreadNamePrefix("image-derivative-");
+        return executor;
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.pp.memorysitebackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mede cada chamada do S3Client: tempo por operação (PutObject, UploadPart, ...) e resultado,
+ * além dos bytes enviados nas operações com corpo. As tags são só nome da operação e resultado,
+ * nunca a key do objeto, para manter a cardinalidade baixa.
+ */
+public class StorageMetricsInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<Long> START_NANOS = new ExecutionAttribute<>("StorageMetricsStartNanos");
+    private static final ExecutionAttribute<Long> REQUEST_BYTES = new ExecutionAttribute<>("StorageMetricsRequestBytes");
+
+    private final MeterRegistry meterRegistry;
+
+    public StorageMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes executionAttributes) {
+        executionAttributes.putAttribute(START_NANOS, System.nanoTime());
+    }
+
+    @Override
+    public void afterMarshalling(Context.AfterMarshalling context, ExecutionAttributes executionAttributes) {
+        context.requestBody()
+                .flatMap(body -> body.optionalContentLength())
+                .ifPresent(length -> executionAttributes.putAttribute(REQUEST_BYTES, length));
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, "success");
+        Long bytes = executionAttributes.getAttribute(REQUEST_BYTES);
+        if (bytes != null) {
+            DistributionSummary.builder("storage.upload.bytes")
+                    .description("Bytes enviados ao storage por requisição")
+                    .baseUnit("bytes")
+                    .tag("operation", operation(executionAttributes))
+                    .register(meterRegistry)
+                    .record(bytes);
+        }
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes executionAttributes) {
+        record(executionAttributes, "failure");
+    }
+
+    private void record(ExecutionAttributes executionAttributes, String outcome) {
+        Long start = executionAttributes.getAttribute(START_NANOS);
+        if (start == null) {
+            return;
+        }
+        Timer.builder("storage.requests")
+                .description("Chamadas ao S3 do Supabase Storage por operação e resultado")
+                .tag("operation", operation(executionAttributes))
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    private static String operation(ExecutionAttributes executionAttributes) {
+        String operation = executionAttributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME);
+        return operation != null ? operation : "unknown";
+    }
+}
@@ -1,5 +1,6 @@
 package br.com.pp.memorysitebackend.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,6 +10,8 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 
 
 
@@ -20,6 +23,9 @@ public class SupabaseConfig {
     @Value("${supabase.api.url}")
     private String supabaseUrl;
 
+    @Value("${supabase.s3.endpoint}")
+    private String supabaseS3Endpoint;
+
 
 
     @Value("${supabase.s3.access-key-id}")
@@ -34,22 +40,37 @@ public class SupabaseConfig {
     private static final Logger log = LoggerFactory.getLogger(SupabaseConfig.class);
 
     @Bean
-    public S3Client supabaseS3Client() {
-
-        String supabaseS3Endpoint = "https://nhisovxouqpxhyakidug.supabase.co/storage/v1/s3";
+    public S3Client supabaseS3Client(MeterRegistry meterRegistry) {
 
         log.info("Configurando S3 Client. Endpoint: {}, Região: {}", supabaseS3Endpoint, supabaseRegion);
         log.info("Usando S3 Access Key ID: {}", supabaseS3AccessKeyId != null && !supabaseS3AccessKeyId.isEmpty() ? "Presente (***)" : "AUSENTE!");
 
-        StaticCredentialsProvider credentialsProvider = StaticCredentialsProvider.create(
-                AwsBasicCredentials.create(supabaseS3AccessKeyId, supabaseS3SecretAccessKey)
-        );
-
         return S3Client.builder()
                 .region(Region.of(supabaseRegion))
                 .endpointOverride(URI.create(supabaseS3Endpoint))
-                .credentialsProvider(credentialsProvider)
+                .credentialsProvider(credentialsProvider())
                 .forcePathStyle(true)
+                .overrideConfiguration(config -> config.addExecutionInterceptor(new StorageMetricsInterceptor(meterRegistry)))
+                .build();
+    }
+
+    /**
+     * Assina URLs para o cliente enviar arquivos direto ao bucket, com as mesmas credenciais e endpoint do S3Client.
+     * A assinatura é local: nenhuma chamada ao Supabase é feita ao gerar a URL.
+     */
+    @Bean(destroyMethod = "close")
+    public S3Presigner supabaseS3Presigner() {
+        return S3Presigner.builder()
+                .region(Region.of(supabaseRegion))
+                .endpointOverride(URI.create(supabaseS3Endpoint))
+                .credentialsProvider(credentialsProvider())
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
                 .build();
     }
+
+    private StaticCredentialsProvider credentialsProvider() {
+        return StaticCredentialsProvider.create(
+                AwsBasicCredentials.create(supabaseS3AccessKeyId, supabaseS3SecretAccessKey)
+        );
+    }
 }
\ No newline at end of file
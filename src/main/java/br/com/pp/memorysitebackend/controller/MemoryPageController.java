@@ -1,21 +1,53 @@
 package br.com.pp.memorysitebackend.controller;
 
+import br.com.pp.memorysitebackend.dto.BatchCreateResult;
+import br.com.pp.memorysitebackend.dto.CompleteDirectUploadRequest;
 import br.com.pp.memorysitebackend.dto.CreateMemoryPageRequest;
+import br.com.pp.memorysitebackend.dto.DirectUploadRequest;
+import br.com.pp.memorysitebackend.dto.DirectUploadResponse;
 import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.dto.MemoryPageSummary;
+import br.com.pp.memorysitebackend.dto.MemoryPageVersion;
+import br.com.pp.memorysitebackend.dto.MusicUploadResponse;
+import br.com.pp.memorysitebackend.dto.PageViewStatsResponse;
+import br.com.pp.memorysitebackend.dto.ProxiedMedia;
+import br.com.pp.memorysitebackend.dto.QrCodeFormat;
+import br.com.pp.memorysitebackend.dto.QrCodeImage;
+import br.com.pp.memorysitebackend.dto.StartMusicUploadRequest;
+import br.com.pp.memorysitebackend.dto.TrendingResponse;
+import br.com.pp.memorysitebackend.dto.UploadedPartResponse;
 import br.com.pp.memorysitebackend.service.MemoryPageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.util.DisconnectedClientHelper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/memory")
@@ -23,8 +55,21 @@ import java.util.Optional;
 public class MemoryPageController {
 
     private final MemoryPageService memoryPageService;
+    private final ObjectMapper objectMapper;
     private static final Logger log = LoggerFactory.getLogger(MemoryPageController.class);
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DEFAULT_STATS_DAYS = 7;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final CacheControl QR_CODE_CACHE_CONTROL = CacheControl.maxAge(30, TimeUnit.DAYS).cachePublic();
+    private static final CacheControl TRENDING_CACHE_CONTROL = CacheControl.maxAge(5, TimeUnit.SECONDS).cachePublic();
+    // O proxy serve bytes enviados por usuários no domínio da API: só imagens raster e áudio vão com o tipo do bucket.
+    // Qualquer outro tipo (ex.: image/svg+xml, text/html) vira download.
+    private static final Set<String> PROXIED_MEDIA_TYPES = Set.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/avif",
+            "audio/mpeg", "audio/mp4", "audio/aac", "audio/ogg", "audio/wav", "audio/x-wav", "audio/webm", "audio/flac");
+    private static final String PROXIED_MEDIA_CSP = "default-src 'none'; sandbox";
+
 
     @PostMapping
     public ResponseEntity<MemoryPageResponse> createMemoryPage(@Valid @RequestBody CreateMemoryPageRequest requestDto) {
@@ -34,21 +79,96 @@ public class MemoryPageController {
         return ResponseEntity.status(HttpStatus.CREATED).body(savedPageDto);
     }
 
+    // Cada item traz seu próprio status; itens inválidos ou com falha não impedem a criação dos demais.
+    @PostMapping("/batch")
+    public ResponseEntity<List<BatchCreateResult>> createMemoryPages(@RequestBody List<CreateMemoryPageRequest> requests) {
+        log.info("Recebida requisição para criar {} MemoryPages em lote", requests.size());
+        return ResponseEntity.ok(memoryPageService.createMemoryPages(requests));
+    }
+
+    // Respondido da memória desta instância, sem consultar o banco. O slug "trending" é reservado (SlugAllocator).
+    @GetMapping("/trending")
+    public ResponseEntity<TrendingResponse> getTrendingPages(@RequestParam(defaultValue = "1h") String window,
+                                                             @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(TRENDING_CACHE_CONTROL)
+                .body(memoryPageService.getTrendingPages(window, limit));
+    }
+
     @GetMapping("/{slug}")
-    public ResponseEntity<MemoryPageResponse> getMemoryPageBySlug(@PathVariable String slug) {
+    public ResponseEntity<MemoryPageResponse> getMemoryPageBySlug(@PathVariable String slug, WebRequest webRequest,
+                                                                  HttpServletRequest request, HttpServletResponse response) {
         log.info("Recebida requisição para buscar MemoryPage com slug: {}", slug);
-        Optional<MemoryPageResponse> responseDtoOptional = memoryPageService.getMemoryPageBySlug(slug);
+        Optional<MemoryPageVersion> versionOptional = memoryPageService.getMemoryPageVersion(slug);
+        if (versionOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        MemoryPageVersion version = versionOptional.get();
+        if (webRequest.checkNotModified(pageETag(version.getVersion()), toEpochMillis(version.getLastModifiedDate()))) {
+            log.info("MemoryPage não modificada para slug: {}", slug);
+            memoryPageService.registerView(slug, visitorId(request));
+            return null;
+        }
+
+        boolean gzip = acceptsGzip(request);
+        Optional<FileChannel> snapshot = memoryPageService.openPageSnapshot(slug, version.getVersion(), gzip);
+        if (snapshot.isPresent()) {
+            memoryPageService.registerView(slug, visitorId(request));
+            writeSnapshot(snapshot.get(), gzip, version, response);
+            return null;
+        }
+
+        Optional<MemoryPageResponse> responseDtoOptional = memoryPageService.getMemoryPageBySlug(slug, visitorId(request));
         return responseDtoOptional
-                .map(ResponseEntity::ok)
+                .map(page -> ResponseEntity.ok()
+                        .eTag(pageETag(page.getVersion()))
+                        .lastModified(toEpochMillis(page.getLastModifiedDate()))
+                        .cacheControl(CacheControl.noCache())
+                        .body(page))
                 .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<List<MemoryPageResponse>> getAllMemoryPages() {
-        log.info("Recebida requisição para listar todas MemoryPages");
-        List<MemoryPageResponse> pageDtos = memoryPageService.getAllMemoryPages();
+    public ResponseEntity<List<MemoryPageResponse>> getAllMemoryPages(
+                                                                      @RequestParam(required = false) Long afterId,
+                                                                      @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Recebida requisição para listar MemoryPages após id {} (limite {})", afterId, limit);
+        List<MemoryPageResponse> pageDtos = memoryPageService.getMemoryPages(afterId, limit);
         log.info("Retornando {} MemoryPages", pageDtos.size());
-        return ResponseEntity.ok(pageDtos);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (pageDtos.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(pageDtos.get(pageDtos.size() - 1).getId()));
+        }
+        return response.body(pageDtos);
+    }
+
+    @GetMapping(params = "view=summary")
+    public ResponseEntity<List<MemoryPageSummary>> getMemoryPageSummaries(
+                                                                         @RequestParam(required = false) Long afterId,
+                                                                         @RequestParam(defaultValue = "" + DEFAULT_PAGE_SIZE) int limit) {
+        log.info("Recebida requisição para listar resumos de MemoryPages após id {} (limite {})", afterId, limit);
+        List<MemoryPageSummary> summaries = memoryPageService.getMemoryPageSummaries(afterId, limit);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (summaries.size() == limit) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(summaries.get(summaries.size() - 1).getId()));
+        }
+        return response.body(summaries);
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllMemoryPages() {
+        log.info("Recebida requisição para listar todas MemoryPages em NDJSON");
+        StreamingResponseBody body = outputStream -> memoryPageService.streamAllMemoryPages(page -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(page));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @PutMapping("/{slug}")
@@ -80,16 +200,90 @@ public class MemoryPageController {
     }
 
 
+    // Lê os agregados já gravados; as visualizações ainda em memória aparecem após app.analytics.flush-interval-ms.
+    @GetMapping("/{slug}/stats")
+    public ResponseEntity<PageViewStatsResponse> getPageViewStats(@PathVariable String slug,
+                                                                  @RequestParam(defaultValue = "" + DEFAULT_STATS_DAYS) int days) {
+        log.info("Recebida requisição de estatísticas de visualização para slug: {} ({} dias)", slug, days);
+        return memoryPageService.getPageViewStats(slug, days)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    // Proxy opcional (app.media-proxy.enabled) para imagens e música, com cache em disco e suporte a Range.
+    @GetMapping("/{slug}/media/{index}")
+    public ResponseEntity<Void> getPageMedia(@PathVariable String slug, @PathVariable int index, WebRequest webRequest,
+                                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Optional<ProxiedMedia> mediaOptional = memoryPageService.openPageMedia(slug, index);
+        if (mediaOptional.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        ProxiedMedia media = mediaOptional.get();
+        try (FileChannel channel = media.getChannel()) {
+            if (webRequest.checkNotModified(media.getETag())) {
+                return null;
+            }
+            response.setHeader("X-Content-Type-Options", "nosniff");
+            response.setHeader("Content-Security-Policy", PROXIED_MEDIA_CSP);
+            long size = media.getSize();
+            long start = 0;
+            long end = size - 1;
+            List<HttpRange> ranges = requestedRanges(request, media.getETag());
+            if (ranges.size() == 1) {
+                start = ranges.get(0).getRangeStart(size);
+                end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || start > end) {
+                    response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).build();
+                }
+                response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            }
+            if (isProxiedMediaType(media.getContentType())) {
+                response.setContentType(media.getContentType());
+            } else {
+                response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+                response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().build().toString());
+            }
+            response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+            response.setHeader(HttpHeaders.ETAG, media.getETag());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+            try {
+                transfer(channel, start, end - start + 1, response);
+            } catch (IOException e) {
+                // Comum no áudio: o navegador cancela a requisição ao pular para outro trecho.
+                if (DisconnectedClientHelper.isClientDisconnectedException(e)) {
+                    log.debug("Cliente desconectou durante o envio da mídia {} da página {}", index, slug);
+                    return null;
+                }
+                throw e;
+            }
+        }
+        return null;
+    }
+
     @GetMapping("/{slug}/qrcode")
-    public ResponseEntity<byte[]> getQrCode(@PathVariable String slug) throws IOException {
+    public ResponseEntity<byte[]> getQrCode(
+                                            @PathVariable String slug,
+                                            @RequestParam(defaultValue = "250") int size,
+                                            @RequestParam(defaultValue = "png") String format,
+                                            WebRequest webRequest) throws IOException {
         log.info("Recebida requisição para gerar QR Code para slug: {}", slug);
-        byte[] qrCodeBytes = memoryPageService.generateQrCodeForSlug(slug);
+        QrCodeFormat qrCodeFormat = QrCodeFormat.from(format);
+        String etag = memoryPageService.getQrCodeETag(slug, size, qrCodeFormat);
+        if (webRequest.checkNotModified(etag)) {
+            log.info("QR Code não modificado para slug: {}", slug);
+            return null;
+        }
+        QrCodeImage qrCode = memoryPageService.generateQrCodeForSlug(slug, size, qrCodeFormat);
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.IMAGE_PNG);
-        headers.setContentLength(qrCodeBytes.length);
         log.info("Retornando imagem QR Code para slug: {}", slug);
-        return new ResponseEntity<>(qrCodeBytes, headers, HttpStatus.OK);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(qrCode.getFormat().getMediaType()))
+                .contentLength(qrCode.getContent().length)
+                .eTag(qrCode.getEtag())
+                .cacheControl(QR_CODE_CACHE_CONTROL)
+                .body(qrCode.getContent());
     }
 
     @PostMapping("/{slug}/images")
@@ -112,4 +306,154 @@ public class MemoryPageController {
         log.info("Música salva com sucesso para slug {}: {}", slug, savedPublicUrl);
         return ResponseEntity.ok(savedPublicUrl);
     }
-}
\ No newline at end of file
+
+    // Upload direto: o cliente recebe uma URL assinada, envia o arquivo ao storage e depois confirma.
+    @PostMapping("/{slug}/uploads")
+    public ResponseEntity<DirectUploadResponse> startDirectUpload(
+                                                                  @PathVariable String slug,
+                                                                  @Valid @RequestBody DirectUploadRequest request) {
+        log.info("Recebida requisição de upload direto ({}) para slug: {}", request.getKind(), slug);
+        DirectUploadResponse upload = memoryPageService.startDirectUpload(slug, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(upload);
+    }
+
+    @PostMapping("/{slug}/uploads/complete")
+    public ResponseEntity<String> completeDirectUpload(
+                                                       @PathVariable String slug,
+                                                       @Valid @RequestBody CompleteDirectUploadRequest request) throws IOException {
+        log.info("Recebida confirmação de upload direto ({}) para slug: {}", request.getKind(), slug);
+        String savedPublicUrl = memoryPageService.completeDirectUpload(slug, request);
+        log.info("Upload direto associado ao slug {}: {}", slug, savedPublicUrl);
+        return ResponseEntity.ok(savedPublicUrl);
+    }
+
+    @PostMapping("/{slug}/music/uploads")
+    public ResponseEntity<MusicUploadResponse> startMusicUpload(
+                                                                @PathVariable String slug,
+                                                                @Valid @RequestBody StartMusicUploadRequest request) {
+        log.info("Recebida requisição para iniciar upload em partes de música para slug: {}", slug);
+        MusicUploadResponse upload = memoryPageService.startMusicUpload(slug, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(upload);
+    }
+
+    @PutMapping(value = "/{slug}/music/uploads/{uploadId}/parts/{partNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadedPartResponse> uploadMusicPart(
+                                                                @PathVariable String slug,
+                                                                @PathVariable String uploadId,
+                                                                @PathVariable int partNumber,
+                                                                @RequestParam("key") String objectKey,
+                                                                HttpServletRequest request) throws IOException {
+        log.info("Recebida parte {} do upload {} de música para slug: {}", partNumber, uploadId, slug);
+        UploadedPartResponse part = memoryPageService.uploadMusicPart(slug, uploadId, objectKey, partNumber, request.getInputStream());
+        return ResponseEntity.ok(part);
+    }
+
+    @GetMapping("/{slug}/music/uploads/{uploadId}")
+    public ResponseEntity<MusicUploadResponse> getMusicUpload(
+                                                              @PathVariable String slug,
+                                                              @PathVariable String uploadId,
+                                                              @RequestParam("key") String objectKey) {
+        log.info("Recebida requisição de status do upload {} de música para slug: {}", uploadId, slug);
+        return ResponseEntity.ok(memoryPageService.getMusicUpload(slug, uploadId, objectKey));
+    }
+
+    @PostMapping("/{slug}/music/uploads/{uploadId}/complete")
+    public ResponseEntity<String> completeMusicUpload(
+                                                      @PathVariable String slug,
+                                                      @PathVariable String uploadId,
+                                                      @RequestParam("key") String objectKey) throws IOException {
+        log.info("Recebida requisição para concluir upload {} de música para slug: {}", uploadId, slug);
+        String savedPublicUrl = memoryPageService.completeMusicUpload(slug, uploadId, objectKey);
+        log.info("Música salva com sucesso para slug {}: {}", slug, savedPublicUrl);
+        return ResponseEntity.ok(savedPublicUrl);
+    }
+
+    @DeleteMapping("/{slug}/music/uploads/{uploadId}")
+    public ResponseEntity<Void> abortMusicUpload(
+                                                 @PathVariable String slug,
+                                                 @PathVariable String uploadId,
+                                                 @RequestParam("key") String objectKey) {
+        log.info("Recebida requisição para cancelar upload {} de música para slug: {}", uploadId, slug);
+        memoryPageService.abortMusicUpload(slug, uploadId, objectKey);
+        return ResponseEntity.noContent().build();
+    }
+
+    // O arquivo vai para a resposta com FileChannel.transferTo, sem carregar a página nem gerar o JSON.
+    private static void writeSnapshot(FileChannel snapshot, boolean gzip, MemoryPageVersion version, HttpServletResponse response) {
+        try (snapshot) {
+            long size = snapshot.size();
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setHeader(HttpHeaders.ETAG, pageETag(version.getVersion()));
+            response.setDateHeader(HttpHeaders.LAST_MODIFIED, toEpochMillis(version.getLastModifiedDate()));
+            response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (gzip) {
+                response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            transfer(snapshot, 0, size, response);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Copia o trecho do arquivo para a resposta com FileChannel.transferTo, sem carregá-lo na heap.
+    private static void transfer(FileChannel source, long position, long count, HttpServletResponse response) throws IOException {
+        response.setContentLengthLong(count);
+        WritableByteChannel body = Channels.newChannel(response.getOutputStream());
+        for (long end = position + count; position < end; ) {
+            position += source.transferTo(position, end - position, body);
+        }
+    }
+
+    // Vários intervalos na mesma requisição (multipart/byteranges) não são suportados: a resposta vai inteira.
+    private static boolean isProxiedMediaType(String contentType) {
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return PROXIED_MEDIA_TYPES.contains(mediaType.getType() + "/" + mediaType.getSubtype());
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+    }
+
+    private static List<HttpRange> requestedRanges(HttpServletRequest request, String eTag) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range == null || (ifRange != null && !ifRange.equals(eTag))) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            return List.of();
+        }
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                return parts.length == 1 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    // Endereço e navegador do cliente; atrás de proxy, o endereço depende de server.forward-headers-strategy.
+    private static String visitorId(HttpServletRequest request) {
+        String userAgent = request.getHeader(HttpHeaders.USER_AGENT);
+        return request.getRemoteAddr() + "|" + (userAgent != null ? userAgent : "");
+    }
+
+    // ETag fraco: o corpo inclui viewCount, que muda sem alterar a versão da página.
+    private static String pageETag(long version) {
+        return "W/\"v" + version + "\"";
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+}
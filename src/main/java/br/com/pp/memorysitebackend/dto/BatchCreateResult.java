@@ -0,0 +1,34 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+/**
+ * Resultado de um item de POST /api/memory/batch, na mesma posição ({@code index}) do item enviado.
+ */
+@Data
+@AllArgsConstructor
+public class BatchCreateResult {
+
+    public enum Status { CREATED, INVALID, FAILED }
+
+    private int index;
+    private Status status;
+    private MemoryPageResponse page;
+    private String error;
+    private Map<String, String> validationErrors;
+
+    public static BatchCreateResult created(int index, MemoryPageResponse page) {
+        return new BatchCreateResult(index, Status.CREATED, page, null, null);
+    }
+
+    public static BatchCreateResult invalid(int index, Map<String, String> validationErrors) {
+        return new BatchCreateResult(index, Status.INVALID, null, "Erro de validação", validationErrors);
+    }
+
+    public static BatchCreateResult failed(int index, String error) {
+        return new BatchCreateResult(index, Status.FAILED, null, error, null);
+    }
+}
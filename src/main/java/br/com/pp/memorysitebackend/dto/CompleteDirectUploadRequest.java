@@ -0,0 +1,15 @@
+package br.com.pp.memorysitebackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CompleteDirectUploadRequest {
+
+    @NotNull(message = "Tipo de mídia não pode ser vazio.")
+    private MediaKind kind;
+
+    @NotBlank(message = "Chave do objeto não pode ser vazia.")
+    private String objectKey;
+}
@@ -0,0 +1,19 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyPageViews {
+
+    private LocalDate date;
+    private long views;
+    // Estimativa (HyperLogLog), com erro típico de 2 a 3%.
+    private long uniqueVisitors;
+
+}
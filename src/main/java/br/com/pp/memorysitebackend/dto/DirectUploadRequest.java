@@ -0,0 +1,25 @@
+package br.com.pp.memorysitebackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class DirectUploadRequest {
+
+    @NotNull(message = "Tipo de mídia não pode ser vazio.")
+    private MediaKind kind;
+
+    @Size(max = 255, message = "Nome do arquivo muito longo.")
+    private String fileName;
+
+    @NotBlank(message = "Tipo do arquivo não pode ser vazio.")
+    private String contentType;
+
+    // Assinado na URL: o storage recusa um PUT com tamanho diferente.
+    @NotNull(message = "Tamanho do arquivo não pode ser vazio.")
+    @Positive(message = "Tamanho do arquivo deve ser positivo.")
+    private Long contentLength;
+}
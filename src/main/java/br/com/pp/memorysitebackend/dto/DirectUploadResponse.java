@@ -0,0 +1,24 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * URL assinada para o cliente enviar o arquivo com um PUT direto ao bucket, incluindo os headers assinados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirectUploadResponse {
+
+    private String objectKey;
+    private String uploadUrl;
+    private String method;
+    private Map<String, String> headers;
+    private Instant expiresAt;
+
+}
@@ -0,0 +1,15 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariantResponse {
+
+    private int width;
+    private String url;
+
+}
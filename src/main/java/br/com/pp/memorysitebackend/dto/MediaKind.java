@@ -0,0 +1,26 @@
+package br.com.pp.memorysitebackend.dto;
+
+/**
+ * Tipo de mídia enviada direto ao storage: define o prefixo da chave e os content types aceitos.
+ */
+public enum MediaKind {
+
+    IMAGE("images/", "image/"),
+    MUSIC("music/", "audio/");
+
+    private final String keyPrefix;
+    private final String contentTypePrefix;
+
+    MediaKind(String keyPrefix, String contentTypePrefix) {
+        this.keyPrefix = keyPrefix;
+        this.contentTypePrefix = contentTypePrefix;
+    }
+
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    public boolean accepts(String contentType) {
+        return contentType != null && contentType.startsWith(contentTypePrefix);
+    }
+}
@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @NoArgsConstructor
@@ -18,9 +19,13 @@ public class MemoryPageResponse {
     private String title;
     private String dedicatedText;
     private List<String> imageUrls;
+    // Versões responsivas (largura -> URL) de cada imagem, por URL original.
+    private Map<String, List<ImageVariantResponse>> imageVariants;
     private String musicUrl;
     private LocalDateTime targetDate;
     private LocalDateTime creationDate;
     private long viewCount;
+    private long version;
+    private LocalDateTime lastModifiedDate;
 
 }
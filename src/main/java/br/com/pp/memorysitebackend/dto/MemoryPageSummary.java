@@ -0,0 +1,20 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class MemoryPageSummary {
+
+    private Long id;
+    private String slug;
+    private String title;
+    private LocalDateTime creationDate;
+    private long viewCount;
+    // Primeira imagem da página, ou null se não houver imagens.
+    private String coverImageUrl;
+
+}
@@ -0,0 +1,19 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MusicUploadResponse {
+
+    private String uploadId;
+    private String objectKey;
+    private int partSize;
+    private List<UploadedPartResponse> uploadedParts;
+
+}
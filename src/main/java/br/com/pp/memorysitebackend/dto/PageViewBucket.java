@@ -0,0 +1,23 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Visualizações agregadas de uma página num intervalo (hora na gravação, dia na consulta).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageViewBucket {
+
+    private String slug;
+    private Instant bucketStart;
+    private long views;
+    // Registradores do HyperLogLog com os visitantes do intervalo.
+    private byte[] visitorsSketch;
+
+}
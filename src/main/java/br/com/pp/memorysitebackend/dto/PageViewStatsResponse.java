@@ -0,0 +1,25 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageViewStatsResponse {
+
+    private String slug;
+    // Fuso usado para separar os dias (app.analytics.zone).
+    private String zone;
+    private LocalDate from;
+    private LocalDate to;
+    private long views;
+    // Visitantes distintos no período inteiro, não a soma dos dias.
+    private long uniqueVisitors;
+    private List<DailyPageViews> days;
+
+}
@@ -0,0 +1,22 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.nio.channels.FileChannel;
+
+/**
+ * Objeto do bucket aberto a partir do cache em disco do proxy de mídia. Quem recebe fecha o canal.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProxiedMedia {
+
+    private FileChannel channel;
+    private long size;
+    private String contentType;
+    private String eTag;
+
+}
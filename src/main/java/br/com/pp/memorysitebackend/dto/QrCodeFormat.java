@@ -0,0 +1,27 @@
+package br.com.pp.memorysitebackend.dto;
+
+import java.util.Locale;
+
+public enum QrCodeFormat {
+
+    PNG("image/png"),
+    SVG("image/svg+xml");
+
+    private final String mediaType;
+
+    QrCodeFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public static QrCodeFormat from(String value) {
+        try {
+            return QrCodeFormat.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de QR Code inválido: " + value + ". Use png ou svg.");
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class QrCodeImage {
+
+    private byte[] content;
+    private QrCodeFormat format;
+    private String etag;
+
+}
@@ -0,0 +1,15 @@
+package br.com.pp.memorysitebackend.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+@Data
+public class StartMusicUploadRequest {
+
+    @Size(max = 255, message = "Nome do arquivo muito longo.")
+    private String fileName;
+
+    @NotBlank(message = "Tipo do arquivo não pode ser vazio.")
+    private String contentType;
+}
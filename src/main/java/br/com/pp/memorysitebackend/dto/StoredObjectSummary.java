@@ -0,0 +1,18 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StoredObjectSummary {
+
+    private String objectKey;
+    private Instant lastModified;
+    private long size;
+
+}
@@ -0,0 +1,15 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class SyncBacklog {
+
+    private long pending;
+    private LocalDateTime oldestModifiedDate;
+
+}
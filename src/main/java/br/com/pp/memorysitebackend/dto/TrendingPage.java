@@ -0,0 +1,19 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingPage {
+
+    private String slug;
+    // Soma dos contadores dos buckets da janela, usada no ranking. A contagem real fica entre minViews e maxViews:
+    // maxViews inclui o que a página pode ter tido nos buckets cheios em que não tinha contador.
+    private long views;
+    private long minViews;
+    private long maxViews;
+
+}
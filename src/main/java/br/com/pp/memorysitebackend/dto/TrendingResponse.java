@@ -0,0 +1,20 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendingResponse {
+
+    private String window;
+    // Momento em que o ranking foi calculado; ele é recalculado a cada app.trending.refresh-interval-ms.
+    private Instant generatedAt;
+    private List<TrendingPage> pages;
+
+}
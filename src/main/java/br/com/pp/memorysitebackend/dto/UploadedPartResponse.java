@@ -0,0 +1,16 @@
+package br.com.pp.memorysitebackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadedPartResponse {
+
+    private int partNumber;
+    private String etag;
+    private long size;
+
+}
@@ -0,0 +1,17 @@
+package br.com.pp.memorysitebackend.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImageVariant implements Serializable {
+
+    private int width;
+    private String url;
+
+}
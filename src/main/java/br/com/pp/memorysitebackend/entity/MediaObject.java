@@ -0,0 +1,51 @@
+package br.com.pp.memorysitebackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Arquivo armazenado no bucket, identificado pelo SHA-256 do conteúdo. Uploads com o mesmo conteúdo
+ * reutilizam o objeto; {@code refCount} conta as páginas que apontam para ele.
+ */
+@Entity
+@Table(name = "media_objects")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MediaObject {
+
+    @Id
+    @Column(length = 64)
+    private String contentHash;
+
+    @Column(nullable = false, length = 512)
+    private String objectKey;
+
+    @Column(nullable = false, unique = true, length = 512)
+    private String publicUrl;
+
+    private String contentType;
+
+    @Column(nullable = false)
+    private long sizeBytes;
+
+    @Column(nullable = false)
+    private int refCount;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Atualizado a cada upload que reutiliza o objeto; o coletor só remove objetos sem uso recente.
+    @Column(nullable = false)
+    private LocalDateTime lastUsedAt;
+
+}
@@ -4,40 +4,60 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+// Cache de segundo nível (HibernateCacheConfig). imageUrls fica na própria linha, então vai junto na entrada da entidade.
 @Entity
 @Table(name = "memory_pages")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "memoryPages")
+@NaturalIdCache(region = "memoryPageSlugs")
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class MemoryPage {
 
+    // Sequência com incremento 50: o Hibernate reserva 50 ids por consulta e consegue agrupar INSERTs em lote.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "memory_pages_seq")
+    @SequenceGenerator(name = "memory_pages_seq", sequenceName = "memory_pages_seq", allocationSize = 50)
     private Long id;
 
+    // Imutável: a busca por slug resolve o id pelo cache de natural id (região memoryPageSlugs).
+    @NaturalId
     @Column(nullable = false, unique = true, length = 50)
     private String slug;
 
     @Column(nullable = false, length = 100)
     private String title;
 
-    @Lob
+    // Sem @Lob: no PostgreSQL o Hibernate trataria o campo como Large Object, que não pode ser lido fora de transação.
     @Column(columnDefinition = "TEXT")
     private String dedicatedText;
 
 
-    @ElementCollection(fetch = FetchType.EAGER)
-    @CollectionTable(name = "memory_page_image_urls", joinColumns = @JoinColumn(name = "memory_page_id"))
-    @OrderColumn
-    @Column(name = "image_url", length = 512)
+    // Até 7 URLs, guardadas na própria linha (text[]): carregar e atualizar a página é um único SELECT/UPDATE.
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false, columnDefinition = "text[]")
     private List<String> imageUrls = new ArrayList<>();
 
+    // Versões redimensionadas de cada imagem, por URL original (geradas pelo ImageDerivativeService).
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false, columnDefinition = "jsonb")
+    private Map<String, List<ImageVariant>> imageVariants = new HashMap<>();
+
     @Column(length = 512)
     private String musicUrl;
 
@@ -47,6 +67,16 @@ public class MemoryPage {
     @Column(nullable = false, updatable = false)
     private LocalDateTime creationDate;
     private boolean isSynced = false;
+
+    // Incrementado somente em lote pelo ViewCountBuffer; o save() da entidade não sobrescreve. No cache de segundo
+    // nível o valor pode estar defasado: o MemoryPageCache exibe o total devolvido a cada gravação do buffer.
+    @Column(updatable = false)
     private long viewCount = 0;
 
+    @Version
+    private long version;
+
+    @Column(nullable = false)
+    private LocalDateTime lastModifiedDate;
+
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package br.com.pp.memorysitebackend.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Objeto do bucket aguardando remoção. Só é apagado se, no momento da coleta, nenhuma página o referenciar.
+ */
+@Entity
+@Table(name = "storage_deletion_queue")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StorageDeletion {
+
+    @Id
+    @Column(length = 1024)
+    private String objectKey;
+
+    @Column(nullable = false, length = 2048)
+    private String publicUrl;
+
+    @Column(nullable = false)
+    private LocalDateTime enqueuedAt;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // Depois de uma falha, a próxima tentativa só acontece a partir daqui; nulo enquanto não houve falha.
+    private LocalDateTime retryAfter;
+
+}
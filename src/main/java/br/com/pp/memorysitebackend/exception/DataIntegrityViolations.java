@@ -0,0 +1,28 @@
+package br.com.pp.memorysitebackend.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+
+/**
+ * Classifica violações de integridade pelo SQLState do PostgreSQL encontrado na cadeia de causas.
+ */
+public final class DataIntegrityViolations {
+
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    private DataIntegrityViolations() {
+    }
+
+    /**
+     * Verdadeiro só para violação de constraint única; NOT NULL, FK e tamanho de coluna não contam.
+     */
+    public static boolean isUniqueViolation(DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException && UNIQUE_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
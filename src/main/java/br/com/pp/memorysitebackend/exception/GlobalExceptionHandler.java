@@ -3,8 +3,13 @@ package br.com.pp.memorysitebackend.exception; // Seu pacote
 import br.com.pp.memorysitebackend.dto.ErrorResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -53,6 +58,50 @@ public class GlobalExceptionHandler {
     }
 
 
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailureException(OptimisticLockingFailureException ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                "A página foi alterada por outra requisição. Recarregue e tente novamente.",
+                request.getDescription(false).substring(4)
+        );
+        log.warn("Conflito de versão na requisição {}: {}", request.getDescription(false), ex.getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    // Só a constraint única é conflito (criação concorrente); NOT NULL, FK e tamanho de coluna indicam dados que
+    // deveriam ter sido barrados antes e caem no erro interno.
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(DataIntegrityViolationException ex, WebRequest request) {
+        if (!DataIntegrityViolations.isUniqueViolation(ex)) {
+            return handleGlobalException(ex, request);
+        }
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                HttpStatus.CONFLICT.getReasonPhrase(),
+                "Conflito ao gravar os dados. Tente novamente.",
+                request.getDescription(false).substring(4)
+        );
+        log.warn("Violação de integridade na requisição {}: {}", request.getDescription(false), ex.getMostSpecificCause().getMessage());
+        return new ResponseEntity<>(errorResponse, HttpStatus.CONFLICT);
+    }
+
+    // Sem conexão livre no pool dentro de connection-timeout: sobrecarga passageira, o cliente pode repetir.
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailable(Exception ex, WebRequest request) {
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.SERVICE_UNAVAILABLE.value(),
+                HttpStatus.SERVICE_UNAVAILABLE.getReasonPhrase(),
+                "Servidor ocupado. Tente novamente em instantes.",
+                request.getDescription(false).substring(4)
+        );
+        log.warn("Banco indisponível na requisição {}: {}", request.getDescription(false), ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(IOException.class)
     public ResponseEntity<ErrorResponse> handleIOException(IOException ex, WebRequest request) {
         ErrorResponse errorResponse = new ErrorResponse(
@@ -0,0 +1,55 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.entity.MediaObject;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface MediaObjectRepository extends JpaRepository<MediaObject, String> {
+
+    // Uploads simultâneos do mesmo conteúdo gravam a mesma chave; o primeiro registro vale.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            INSERT INTO media_objects (content_hash, object_key, public_url, content_type, size_bytes, ref_count, created_at, last_used_at)
+            VALUES (:contentHash, :objectKey, :publicUrl, :contentType, :sizeBytes, 0, now(), now())
+            ON CONFLICT (content_hash) DO UPDATE SET last_used_at = now()
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("contentHash") String contentHash,
+                       @Param("objectKey") String objectKey,
+                       @Param("publicUrl") String publicUrl,
+                       @Param("contentType") String contentType,
+                       @Param("sizeBytes") long sizeBytes);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE media_objects SET last_used_at = now() WHERE content_hash = :contentHash", nativeQuery = true)
+    int touch(@Param("contentHash") String contentHash);
+
+    // Remove do índice os objetos sem referências e sem uso desde usedBefore; os demais continuam protegidos.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            DELETE FROM media_objects
+            WHERE public_url = ANY(CAST(:publicUrls AS text[])) AND ref_count = 0 AND last_used_at < :usedBefore
+            """, nativeQuery = true)
+    int deleteUnreferenced(@Param("publicUrls") String[] publicUrls, @Param("usedBefore") LocalDateTime usedBefore);
+
+    // Um único UPDATE para todas as URLs; URLs fora do índice (legadas ou multipart) são ignoradas.
+    @Modifying
+    @Transactional
+    @Query(value = """
+            UPDATE media_objects m
+            SET ref_count = GREATEST(m.ref_count + d.delta, 0)
+            FROM unnest(CAST(:publicUrls AS text[]), CAST(:deltas AS int[])) AS d(public_url, delta)
+            WHERE m.public_url = d.public_url
+            """, nativeQuery = true)
+    int adjustReferenceCounts(@Param("publicUrls") String[] publicUrls, @Param("deltas") Integer[] deltas);
+
+}
@@ -1,14 +1,44 @@
 package br.com.pp.memorysitebackend.repository;
 
+import br.com.pp.memorysitebackend.dto.MemoryPageSummary;
+import br.com.pp.memorysitebackend.dto.MemoryPageVersion;
 import br.com.pp.memorysitebackend.entity.MemoryPage;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface MemoryPageRepository extends JpaRepository<MemoryPage, Long> {
+public interface MemoryPageRepository extends JpaRepository<MemoryPage, Long>, MemoryPageRepositoryCustom {
 
-    Optional<MemoryPage> findBySlug(String slug);
+    boolean existsBySlug(String slug);
 
-}
\ No newline at end of file
+    // Projeção estreita para GET condicional: não carrega dedicatedText nem imageUrls.
+    Optional<MemoryPageVersion> findVersionBySlug(String slug);
+
+    List<MemoryPage> findByIdGreaterThanOrderByIdAsc(Long afterId, Limit limit);
+
+    // Projeção para listagens: só as colunas do resumo, sem dedicatedText; capa = primeiro elemento de image_urls.
+    @Query("""
+            SELECT new br.com.pp.memorysitebackend.dto.MemoryPageSummary(
+                p.id, p.slug, p.title, p.creationDate, p.viewCount, array_get(p.imageUrls, 1))
+            FROM MemoryPage p
+            WHERE p.id > :afterId
+            ORDER BY p.id
+            """)
+    List<MemoryPageSummary> findSummariesAfterId(@Param("afterId") Long afterId, Limit limit);
+
+    // Usa o índice text_pattern_ops em slug (V2) para a busca por prefixo.
+    @Query(value = "SELECT slug FROM memory_pages WHERE slug = :base OR slug LIKE :prefixPattern", nativeQuery = true)
+    List<String> findSlugsMatchingBase(@Param("base") String base, @Param("prefixPattern") String prefixPattern);
+
+    // Versão em lote de findSlugsMatchingBase: todas as bases (e seus "base-%") numa única consulta.
+    @Query(value = "SELECT slug FROM memory_pages WHERE slug = ANY(CAST(:bases AS text[])) OR slug LIKE ANY(CAST(:prefixPatterns AS text[]))",
+            nativeQuery = true)
+    List<String> findSlugsMatchingAnyBase(@Param("bases") String[] bases, @Param("prefixPatterns") String[] prefixPatterns);
+
+}
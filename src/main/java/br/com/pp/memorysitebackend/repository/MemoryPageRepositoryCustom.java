@@ -0,0 +1,58 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.dto.PageViewBucket;
+import br.com.pp.memorysitebackend.dto.SyncBacklog;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface MemoryPageRepositoryCustom {
+
+    /**
+     * Busca pelo natural id (slug). O slug é resolvido para o id pelo cache de natural id e a página vem do
+     * cache de segundo nível; só o que não estiver em cache vai ao banco.
+     */
+    Optional<MemoryPage> findBySlug(String slug);
+
+    /**
+     * Soma as visualizações acumuladas e devolve o total de cada slug alterado, já com as visualizações gravadas
+     * pelas outras instâncias. A escrita não passa pelo Hibernate: o {@code viewCount} das entidades no cache de
+     * segundo nível fica defasado, e quem exibe a contagem usa o total devolvido aqui.
+     */
+    Map<String, Long> incrementViewCounts(Map<String, Long> deltasBySlug);
+
+    /**
+     * Soma os intervalos horários às estatísticas já gravadas: visualizações somadas e sketches de visitantes
+     * unidos, de modo que várias instâncias possam gravar a mesma hora. Slugs sem página são ignorados.
+     */
+    void mergeViewStats(List<PageViewBucket> hourlyBuckets);
+
+    /**
+     * Intervalos horários gravados da página a partir de {@code from}, em ordem cronológica.
+     */
+    List<PageViewBucket> findHourlyViewStats(String slug, Instant from);
+
+    int deleteViewStatsBefore(Instant before);
+
+    /**
+     * Percorre todas as páginas em ordem de id usando um cursor JDBC, sem manter as linhas em memória.
+     * As entidades entregues ao {@code consumer} não são gerenciadas pelo EntityManager.
+     */
+    void streamAllOrderedById(Consumer<MemoryPage> consumer);
+
+    /**
+     * Bloqueia e devolve até {@code limit} páginas não sincronizadas, das mais antigas para as mais novas.
+     * Deve ser chamado dentro de uma transação; os locks valem até o commit.
+     */
+    List<MemoryPage> claimUnsynced(int limit);
+
+    void markSynced(Collection<Long> ids);
+
+    SyncBacklog findSyncBacklog();
+
+}
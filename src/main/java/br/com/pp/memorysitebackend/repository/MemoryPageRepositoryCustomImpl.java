@@ -0,0 +1,240 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.dto.PageViewBucket;
+import br.com.pp.memorysitebackend.dto.SyncBacklog;
+import br.com.pp.memorysitebackend.entity.ImageVariant;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+public class MemoryPageRepositoryCustomImpl implements MemoryPageRepositoryCustom {
+
+    // Um único UPDATE para todos os slugs; RETURNING traz o total atualizado, somado por todas as instâncias.
+    private static final String INCREMENT_VIEW_COUNT_SQL = """
+            UPDATE memory_pages p SET view_count = p.view_count + d.delta
+            FROM unnest(?::text[], ?::bigint[]) AS d(slug, delta)
+            WHERE p.slug = d.slug
+            RETURNING p.slug, p.view_count
+            """;
+
+    // Uma única instrução por lote. A ordem fixa das linhas evita deadlock entre instâncias gravando as mesmas horas.
+    private static final String MERGE_VIEW_STATS_SQL = """
+            INSERT INTO page_view_stats (page_id, bucket_start, views, visitors_sketch)
+            SELECT p.id, to_timestamp(d.bucket_epoch), d.views, d.sketch
+            FROM unnest(?::text[], ?::bigint[], ?::bigint[], ?::bytea[]) AS d(slug, bucket_epoch, views, sketch)
+            JOIN memory_pages p ON p.slug = d.slug
+            ORDER BY p.id, d.bucket_epoch
+            ON CONFLICT (page_id, bucket_start) DO UPDATE
+            SET views = page_view_stats.views + EXCLUDED.views,
+                visitors_sketch = hll_merge(page_view_stats.visitors_sketch, EXCLUDED.visitors_sketch)
+            """;
+
+    // Faixa da chave primária (page_id, bucket_start): as horas vêm já ordenadas, sem agregação no banco.
+    private static final String HOURLY_VIEW_STATS_SQL = """
+            SELECT s.bucket_start, s.views, s.visitors_sketch
+            FROM page_view_stats s
+            JOIN memory_pages p ON p.id = s.page_id
+            WHERE p.slug = ? AND s.bucket_start >= ?
+            ORDER BY s.bucket_start
+            """;
+
+    private static final String DELETE_VIEW_STATS_BEFORE_SQL =
+            "DELETE FROM page_view_stats WHERE bucket_start < ?";
+
+    private static final String SELECT_PAGE_COLUMNS = """
+            SELECT p.id, p.slug, p.title, p.dedicated_text, p.music_url, p.target_date,
+                   p.creation_date, p.is_synced, p.view_count, p.version, p.last_modified_date,
+                   p.image_variants, p.image_urls
+            FROM memory_pages p
+            """;
+
+    private static final String STREAM_ALL_SQL = SELECT_PAGE_COLUMNS + "ORDER BY p.id";
+
+    // SKIP LOCKED: linhas já reivindicadas por outra instância são puladas em vez de esperar o lock.
+    private static final String CLAIM_UNSYNCED_SQL = SELECT_PAGE_COLUMNS + """
+            WHERE p.is_synced = FALSE
+            ORDER BY p.last_modified_date
+            LIMIT ?
+            FOR UPDATE OF p SKIP LOCKED
+            """;
+
+    private static final String MARK_SYNCED_SQL =
+            "UPDATE memory_pages SET is_synced = TRUE WHERE id = ANY(?)";
+
+    private static final String SYNC_BACKLOG_SQL =
+            "SELECT count(*), min(last_modified_date) FROM memory_pages WHERE is_synced = FALSE";
+
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private static final TypeReference<Map<String, List<ImageVariant>>> IMAGE_VARIANTS_TYPE = new TypeReference<>() {
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final RowMapper<MemoryPage> memoryPageRowMapper = (rs, rowNum) -> {
+        MemoryPage page = new MemoryPage();
+        page.setId(rs.getLong("id"));
+        page.setSlug(rs.getString("slug"));
+        page.setTitle(rs.getString("title"));
+        page.setDedicatedText(rs.getString("dedicated_text"));
+        page.setMusicUrl(rs.getString("music_url"));
+        Timestamp targetDate = rs.getTimestamp("target_date");
+        page.setTargetDate(targetDate != null ? targetDate.toLocalDateTime() : null);
+        page.setCreationDate(rs.getTimestamp("creation_date").toLocalDateTime());
+        page.setSynced(rs.getBoolean("is_synced"));
+        page.setViewCount(rs.getLong("view_count"));
+        page.setVersion(rs.getLong("version"));
+        page.setLastModifiedDate(rs.getTimestamp("last_modified_date").toLocalDateTime());
+        Array imageUrls = rs.getArray("image_urls");
+        page.setImageUrls(imageUrls != null
+                ? new ArrayList<>(Arrays.asList((String[]) imageUrls.getArray()))
+                : new ArrayList<>());
+        page.setImageVariants(readImageVariants(rs.getString("image_variants")));
+        return page;
+    };
+
+    // Fora de transação o EntityManager compartilhado fecha a sessão logo após o unwrap; a transação a mantém aberta.
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<MemoryPage> findBySlug(String slug) {
+        return entityManager.unwrap(Session.class).bySimpleNaturalId(MemoryPage.class).loadOptional(slug);
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> incrementViewCounts(Map<String, Long> deltasBySlug) {
+        Map<String, Long> viewCounts = new HashMap<>();
+        if (deltasBySlug.isEmpty()) {
+            return viewCounts;
+        }
+        List<String> slugs = new ArrayList<>(deltasBySlug.keySet());
+        Long[] deltas = slugs.stream().map(deltasBySlug::get).toArray(Long[]::new);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INCREMENT_VIEW_COUNT_SQL);
+            statement.setArray(1, connection.createArrayOf("text", slugs.toArray()));
+            statement.setArray(2, connection.createArrayOf("bigint", deltas));
+            return statement;
+        }, rs -> {
+            viewCounts.put(rs.getString(1), rs.getLong(2));
+        });
+        return viewCounts;
+    }
+
+    @Override
+    @Transactional
+    public void mergeViewStats(List<PageViewBucket> hourlyBuckets) {
+        if (hourlyBuckets.isEmpty()) {
+            return;
+        }
+        List<PageViewBucket> buckets = hourlyBuckets.stream()
+                .sorted(Comparator.comparing(PageViewBucket::getSlug).thenComparing(PageViewBucket::getBucketStart))
+                .toList();
+        String[] slugs = buckets.stream().map(PageViewBucket::getSlug).toArray(String[]::new);
+        Long[] bucketEpochs = buckets.stream().map(bucket -> bucket.getBucketStart().getEpochSecond()).toArray(Long[]::new);
+        Long[] views = buckets.stream().map(PageViewBucket::getViews).toArray(Long[]::new);
+        byte[][] sketches = buckets.stream().map(PageViewBucket::getVisitorsSketch).toArray(byte[][]::new);
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MERGE_VIEW_STATS_SQL);
+            statement.setArray(1, connection.createArrayOf("text", slugs));
+            statement.setArray(2, connection.createArrayOf("bigint", bucketEpochs));
+            statement.setArray(3, connection.createArrayOf("bigint", views));
+            statement.setArray(4, connection.createArrayOf("bytea", sketches));
+            return statement;
+        });
+    }
+
+    @Override
+    public List<PageViewBucket> findHourlyViewStats(String slug, Instant from) {
+        return jdbcTemplate.query(HOURLY_VIEW_STATS_SQL, (rs, rowNum) -> new PageViewBucket(
+                        slug,
+                        rs.getTimestamp(1).toInstant(),
+                        rs.getLong(2),
+                        rs.getBytes(3)),
+                slug, Timestamp.from(from));
+    }
+
+    @Override
+    @Transactional
+    public int deleteViewStatsBefore(Instant before) {
+        return jdbcTemplate.update(DELETE_VIEW_STATS_BEFORE_SQL, Timestamp.from(before));
+    }
+
+    // O driver do PostgreSQL só usa cursor (fetch size) com autocommit desligado, daí a transação.
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAllOrderedById(Consumer<MemoryPage> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(STREAM_ALL_SQL);
+            statement.setFetchSize(STREAM_FETCH_SIZE);
+            return statement;
+        }, rs -> {
+            consumer.accept(memoryPageRowMapper.mapRow(rs, rs.getRow()));
+        });
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<MemoryPage> claimUnsynced(int limit) {
+        return jdbcTemplate.query(CLAIM_UNSYNCED_SQL, memoryPageRowMapper, limit);
+    }
+
+    @Override
+    @Transactional
+    public void markSynced(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(MARK_SYNCED_SQL);
+            statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+            return statement;
+        });
+    }
+
+    @Override
+    public SyncBacklog findSyncBacklog() {
+        return jdbcTemplate.queryForObject(SYNC_BACKLOG_SQL, (rs, rowNum) -> {
+            Timestamp oldest = rs.getTimestamp(2);
+            return new SyncBacklog(rs.getLong(1), oldest != null ? oldest.toLocalDateTime() : null);
+        });
+    }
+
+    private Map<String, List<ImageVariant>> readImageVariants(String json) {
+        if (json == null) {
+            return new HashMap<>();
+        }
+        try {
+            return objectMapper.readValue(json, IMAGE_VARIANTS_TYPE);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("image_variants inválido: " + json, e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.entity.StorageDeletion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface StorageDeletionRepository extends JpaRepository<StorageDeletion, String>, StorageDeletionRepositoryCustom {
+}
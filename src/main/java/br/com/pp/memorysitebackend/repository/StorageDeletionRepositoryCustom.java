@@ -0,0 +1,47 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.entity.StorageDeletion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface StorageDeletionRepositoryCustom {
+
+    /**
+     * Enfileira os objetos (chave → URL pública). Objetos já enfileirados são ignorados.
+     */
+    void enqueue(Map<String, String> publicUrlsByObjectKey);
+
+    /**
+     * Enfileira os objetos do índice de conteúdo sem referências e sem uso desde {@code usedBefore}.
+     */
+    int enqueueUnreferencedMediaObjects(LocalDateTime usedBefore);
+
+    /**
+     * Bloqueia e devolve até {@code limit} entradas enfileiradas antes de {@code enqueuedBefore}, pulando as que
+     * falharam e ainda aguardam a nova tentativa. Deve ser chamado dentro de uma transação; os locks valem até o commit.
+     */
+    List<StorageDeletion> claimDue(LocalDateTime enqueuedBefore, LocalDateTime now, int limit);
+
+    /**
+     * Entre as URLs informadas, devolve as que ainda estão em uso: presentes no índice de conteúdo ou
+     * referenciadas por alguma página (imagem, variante ou música).
+     */
+    Set<String> findReferencedUrls(Collection<String> publicUrls);
+
+    /**
+     * Todas as URLs em uso: as do índice de conteúdo e as referenciadas por alguma página.
+     */
+    Set<String> findAllReferencedUrls();
+
+    void remove(Collection<String> objectKeys);
+
+    /**
+     * Mantém as entradas na fila, contando a falha; só voltam a ser reivindicadas a partir de {@code retryAfter}.
+     */
+    void recordFailures(Collection<String> objectKeys, LocalDateTime retryAfter);
+
+}
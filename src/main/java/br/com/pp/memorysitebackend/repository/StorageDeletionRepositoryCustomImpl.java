@@ -0,0 +1,171 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.entity.StorageDeletion;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class StorageDeletionRepositoryCustomImpl implements StorageDeletionRepositoryCustom {
+
+    private static final String ENQUEUE_SQL = """
+            INSERT INTO storage_deletion_queue (object_key, public_url, enqueued_at, attempts)
+            VALUES (?, ?, now(), 0)
+            ON CONFLICT (object_key) DO NOTHING
+            """;
+
+    private static final String ENQUEUE_UNREFERENCED_MEDIA_SQL = """
+            INSERT INTO storage_deletion_queue (object_key, public_url, enqueued_at, attempts)
+            SELECT m.object_key, m.public_url, now(), 0
+            FROM media_objects m
+            WHERE m.ref_count = 0 AND m.last_used_at < ?
+            ON CONFLICT (object_key) DO NOTHING
+            """;
+
+    // SKIP LOCKED: entradas já reivindicadas por outra instância são puladas em vez de esperar o lock.
+    private static final String CLAIM_DUE_SQL = """
+            SELECT object_key, public_url, enqueued_at, attempts, retry_after
+            FROM storage_deletion_queue
+            WHERE enqueued_at < ? AND (retry_after IS NULL OR retry_after <= ?)
+            ORDER BY enqueued_at
+            LIMIT ?
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    // Um único seq scan em memory_pages por lote, com hash join contra as URLs candidatas.
+    private static final String FIND_REFERENCED_URLS_SQL = """
+            WITH candidates AS (SELECT DISTINCT url FROM unnest(?::text[]) AS c(url))
+            SELECT c.url FROM candidates c
+            WHERE EXISTS (SELECT 1 FROM media_objects m WHERE m.public_url = c.url)
+            UNION
+            SELECT r.url
+            FROM memory_pages p
+            CROSS JOIN LATERAL (
+                SELECT unnest(p.image_urls)
+                UNION ALL SELECT p.music_url
+                UNION ALL SELECT jsonb_path_query(p.image_variants, '$.*[*].url') #>> '{}'
+            ) AS r(url)
+            JOIN candidates c ON c.url = r.url
+            """;
+
+    // Todas as URLs em uso, num único seq scan de memory_pages (usado pela reconciliação, uma vez por execução).
+    private static final String FIND_ALL_REFERENCED_URLS_SQL = """
+            SELECT m.public_url FROM media_objects m
+            UNION
+            SELECT r.url
+            FROM memory_pages p
+            CROSS JOIN LATERAL (
+                SELECT unnest(p.image_urls)
+                UNION ALL SELECT p.music_url
+                UNION ALL SELECT jsonb_path_query(p.image_variants, '$.*[*].url') #>> '{}'
+            ) AS r(url)
+            WHERE r.url IS NOT NULL
+            """;
+
+    private static final String REMOVE_SQL =
+            "DELETE FROM storage_deletion_queue WHERE object_key = ANY(?)";
+
+    private static final String RECORD_FAILURES_SQL =
+            "UPDATE storage_deletion_queue SET attempts = attempts + 1, retry_after = ? WHERE object_key = ANY(?)";
+
+    private static final RowMapper<StorageDeletion> STORAGE_DELETION_ROW_MAPPER = (rs, rowNum) -> new StorageDeletion(
+            rs.getString("object_key"),
+            rs.getString("public_url"),
+            rs.getTimestamp("enqueued_at").toLocalDateTime(),
+            rs.getInt("attempts"),
+            rs.getTimestamp("retry_after") != null ? rs.getTimestamp("retry_after").toLocalDateTime() : null);
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    @Transactional
+    public void enqueue(Map<String, String> publicUrlsByObjectKey) {
+        if (publicUrlsByObjectKey.isEmpty()) {
+            return;
+        }
+        List<Object[]> batchArgs = new ArrayList<>(publicUrlsByObjectKey.size());
+        publicUrlsByObjectKey.forEach((objectKey, publicUrl) -> batchArgs.add(new Object[]{objectKey, publicUrl}));
+        jdbcTemplate.batchUpdate(ENQUEUE_SQL, batchArgs);
+    }
+
+    @Override
+    @Transactional
+    public int enqueueUnreferencedMediaObjects(LocalDateTime usedBefore) {
+        return jdbcTemplate.update(ENQUEUE_UNREFERENCED_MEDIA_SQL, Timestamp.valueOf(usedBefore));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<StorageDeletion> claimDue(LocalDateTime enqueuedBefore, LocalDateTime now, int limit) {
+        return jdbcTemplate.query(CLAIM_DUE_SQL, STORAGE_DELETION_ROW_MAPPER,
+                Timestamp.valueOf(enqueuedBefore), Timestamp.valueOf(now), limit);
+    }
+
+    @Override
+    public Set<String> findReferencedUrls(Collection<String> publicUrls) {
+        Set<String> referenced = new HashSet<>();
+        if (publicUrls.isEmpty()) {
+            return referenced;
+        }
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_REFERENCED_URLS_SQL);
+            statement.setArray(1, connection.createArrayOf("text", publicUrls.toArray()));
+            return statement;
+        }, rs -> {
+            referenced.add(rs.getString(1));
+        });
+        return referenced;
+    }
+
+    @Override
+    public Set<String> findAllReferencedUrls() {
+        Set<String> referenced = new HashSet<>();
+        jdbcTemplate.query(FIND_ALL_REFERENCED_URLS_SQL, rs -> {
+            referenced.add(rs.getString(1));
+        });
+        return referenced;
+    }
+
+    @Override
+    @Transactional
+    public void remove(Collection<String> objectKeys) {
+        updateByKeys(REMOVE_SQL, objectKeys);
+    }
+
+    @Override
+    @Transactional
+    public void recordFailures(Collection<String> objectKeys, LocalDateTime retryAfter) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RECORD_FAILURES_SQL);
+            statement.setTimestamp(1, Timestamp.valueOf(retryAfter));
+            statement.setArray(2, connection.createArrayOf("text", objectKeys.toArray()));
+            return statement;
+        });
+    }
+
+    private void updateByKeys(String sql, Collection<String> objectKeys) {
+        if (objectKeys.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("text", objectKeys.toArray()));
+            return statement;
+        });
+    }
+}
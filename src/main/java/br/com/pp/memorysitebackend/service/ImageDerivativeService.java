@@ -0,0 +1,201 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.ImageVariant;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Gera, em segundo plano, versões menores (JPEG) das imagens enviadas e as registra na MemoryPage.
+ * A imagem original é lida em streaming do storage e decodificada já reduzida (subsampling),
+ * então o heap usado depende das larguras geradas, não da resolução da foto.
+ */
+@Service
+public class ImageDerivativeService {
+
+    private static final Logger log = LoggerFactory.getLogger(ImageDerivativeService.class);
+
+    private static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+    private static final float JPEG_QUALITY = 0.8f;
+    private static final long MAX_SOURCE_PIXELS = 100_000_000L;
+    private static final int MAX_REGISTER_ATTEMPTS = 5;
+
+    private final StorageService storageService;
+    private final Executor executor;
+    private final MemoryPageRepository memoryPageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final MemoryPageInvalidator memoryPageInvalidator;
+    private final List<Integer> widths;
+
+    public ImageDerivativeService(StorageService storageService,
+                                  @Qualifier("imageDerivativeExecutor") Executor executor,
+                                  MemoryPageRepository memoryPageRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  MemoryPageInvalidator memoryPageInvalidator,
+                                  @Value("${app.images.derivatives.widths:320,640,1280}") List<Integer> widths) {
+        this.storageService = storageService;
+        this.executor = executor;
+        this.memoryPageRepository = memoryPageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.memoryPageInvalidator = memoryPageInvalidator;
+        this.widths = widths.stream().sorted().toList();
+    }
+
+    public void scheduleDerivatives(String slug, List<String> originalUrls) {
+        for (String originalUrl : originalUrls) {
+            try {
+                executor.execute(() -> processImage(slug, originalUrl));
+            } catch (RejectedExecutionException e) {
+                log.warn("Fila de geração de variantes cheia. Imagem {} do slug {} ficará sem variantes.", originalUrl, slug);
+            }
+        }
+    }
+
+    /**
+     * Gera e envia as variantes de uma imagem já armazenada. Larguras maiores ou iguais à original são ignoradas.
+     */
+    public List<ImageVariant> generateDerivatives(String originalUrl) throws IOException {
+        try (InputStream content = storageService.openObject(originalUrl);
+             ImageInputStream imageInput = ImageIO.createImageInputStream(content)) {
+            if (imageInput == null) {
+                throw new IOException("Não foi possível abrir a imagem " + originalUrl);
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                throw new IOException("Formato de imagem não suportado: " + originalUrl);
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageInput, true, true);
+                int sourceWidth = reader.getWidth(0);
+                int sourceHeight = reader.getHeight(0);
+                if ((long) sourceWidth * sourceHeight > MAX_SOURCE_PIXELS) {
+                    throw new IOException("Imagem grande demais para gerar variantes: " + sourceWidth + "x" + sourceHeight);
+                }
+                List<Integer> targetWidths = widths.stream().filter(width -> width < sourceWidth).toList();
+                if (targetWidths.isEmpty()) {
+                    return List.of();
+                }
+
+                // Decodifica só 1 a cada N pixels, mantendo pelo menos a maior largura pedida.
+                int subsampling = Math.max(1, sourceWidth / targetWidths.get(targetWidths.size() - 1));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                BufferedImage decoded = reader.read(0, param);
+
+                List<ImageVariant> variants = new ArrayList<>();
+                for (int width : targetWidths) {
+                    byte[] encoded = encodeJpeg(resize(decoded, width));
+                    String url = storageService.uploadImageVariant(originalUrl, width, encoded, VARIANT_CONTENT_TYPE);
+                    variants.add(new ImageVariant(width, url));
+                }
+                return variants;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private void processImage(String slug, String originalUrl) {
+        List<ImageVariant> variants;
+        try {
+            variants = generateDerivatives(originalUrl);
+        } catch (Exception e) {
+            log.error("Erro ao gerar variantes da imagem {} do slug {}", originalUrl, slug, e);
+            return;
+        }
+        if (variants.isEmpty()) {
+            return;
+        }
+        if (registerVariants(slug, originalUrl, variants)) {
+            log.info("Variantes {} geradas para imagem {} do slug {}", variants.stream().map(ImageVariant::getWidth).toList(), originalUrl, slug);
+        }
+    }
+
+    /**
+     * Grava as variantes na página. Imagens da mesma página processadas em paralelo disputam o @Version:
+     * quem perde relê a página (já com as variantes da outra) e tenta de novo, em vez de descartar as suas.
+     */
+    private boolean registerVariants(String slug, String originalUrl, List<ImageVariant> variants) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                    MemoryPage page = memoryPageRepository.findBySlug(slug).orElse(null);
+                    if (page == null || !page.getImageUrls().contains(originalUrl)) {
+                        // As variantes não são apagadas: a chave vem do hash da original, que pode estar em outras páginas.
+                        log.info("Imagem {} não pertence mais ao slug {}. Variantes não registradas.", originalUrl, slug);
+                        return false;
+                    }
+                    page.getImageVariants().put(originalUrl, variants);
+                    page.setSynced(false);
+                    page.setLastModifiedDate(LocalDateTime.now());
+                    memoryPageRepository.save(page);
+                    memoryPageInvalidator.invalidateAfterCommit(page);
+                    return true;
+                }));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_REGISTER_ATTEMPTS) {
+                    log.error("Página {} alterada concorrentemente em {} tentativas. Imagem {} ficará sem variantes.", slug, attempt, originalUrl, e);
+                    return false;
+                }
+                log.debug("Conflito de versão ao registrar variantes da imagem {} do slug {}. Tentativa {} de {}", originalUrl, slug, attempt, MAX_REGISTER_ATTEMPTS);
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int width) {
+        int height = Math.max(1, Math.round((float) source.getHeight() * width / source.getWidth()));
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (ImageOutputStream imageOutput = ImageIO.createImageOutputStream(output)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(imageOutput);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return output.toByteArray();
+    }
+}
@@ -0,0 +1,24 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sink padrão: apenas registra as páginas sincronizadas.
+ */
+@Component
+public class LoggingMemoryPageSyncSink implements MemoryPageSyncSink {
+
+    private static final Logger log = LoggerFactory.getLogger(LoggingMemoryPageSyncSink.class);
+
+    @Override
+    public void sync(List<MemoryPage> pages) {
+        if (log.isDebugEnabled()) {
+            log.debug("Páginas sincronizadas: {}", pages.stream().map(MemoryPage::getSlug).toList());
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.MediaObject;
+import br.com.pp.memorysitebackend.repository.MediaObjectRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Índice de conteúdo dos uploads (SHA-256 → objeto no bucket) e contagem de referências das páginas.
+ * Um objeto só pode ser removido do storage quando nenhuma página aponta para ele ({@code ref_count = 0}).
+ */
+@Component
+public class MediaIndex {
+
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final MediaObjectRepository mediaObjectRepository;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+
+    public MediaIndex(MediaObjectRepository mediaObjectRepository, MeterRegistry meterRegistry) {
+        this.mediaObjectRepository = mediaObjectRepository;
+        this.hitCounter = Counter.builder("media.dedup.lookups")
+                .description("Uploads cujo conteúdo já estava no storage e não foi reenviado")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("media.dedup.lookups")
+                .description("Uploads cujo conteúdo já estava no storage e não foi reenviado")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Calcula o SHA-256 (hex) lendo o arquivo em blocos, sem carregá-lo inteiro em memória.
+     */
+    public static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest = newSha256();
+        byte[] buffer = new byte[HASH_BUFFER_SIZE];
+        try (InputStream content = file.getInputStream()) {
+            for (int read; (read = content.read(buffer)) != -1; ) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Devolve a URL do objeto com este conteúdo, marcando-o como usado agora para que o coletor não o remova
+     * antes de o upload ser associado à página.
+     */
+    public Optional<String> findPublicUrl(String contentHash) {
+        Optional<String> publicUrl = mediaObjectRepository.touch(contentHash) > 0
+                ? mediaObjectRepository.findById(contentHash).map(MediaObject::getPublicUrl)
+                : Optional.empty();
+        (publicUrl.isPresent() ? hitCounter : missCounter).increment();
+        return publicUrl;
+    }
+
+    /**
+     * Registra um objeto recém-enviado, ainda sem referências. Se o hash já existir, o registro anterior é mantido.
+     */
+    public void register(String contentHash, String objectKey, String publicUrl, String contentType, long sizeBytes) {
+        mediaObjectRepository.insertIfAbsent(contentHash, objectKey, publicUrl, contentType, sizeBytes);
+    }
+
+    /**
+     * Ajusta {@code ref_count} pela diferença entre as URLs que a página tinha e as que passou a ter
+     * (contando repetições). Deve rodar na mesma transação que grava a página.
+     */
+    public void updateReferences(Collection<String> previousUrls, Collection<String> currentUrls) {
+        Map<String, Integer> deltas = new HashMap<>();
+        previousUrls.forEach(url -> deltas.merge(url, -1, Integer::sum));
+        currentUrls.forEach(url -> deltas.merge(url, 1, Integer::sum));
+        deltas.values().removeIf(delta -> delta == 0);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        String[] urls = deltas.keySet().toArray(String[]::new);
+        Integer[] values = new Integer[urls.length];
+        for (int i = 0; i < urls.length; i++) {
+            values[i] = deltas.get(urls[i]);
+        }
+        mediaObjectRepository.adjustReferenceCounts(urls, values);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.ProxiedMedia;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Stream;
+
+/**
+ * Cache em disco, limitado por tamanho total, dos objetos do bucket servidos pelo proxy de mídia. Na falta, o objeto
+ * é baixado do S3 direto para um arquivo, sem passar inteiro pela heap. O cache guarda um future por chave: várias
+ * requisições pelo mesmo objeto esperam um único download, em vez de cada uma baixar o seu.
+ * Arquivos que saem do cache são apagados; quem já os abriu continua lendo até fechar o canal. Cada instância usa um
+ * subdiretório próprio de {@code app.media-proxy.dir}, com nomes aleatórios, sem tocar nos arquivos de outros processos.
+ * Objetos maiores que o cache inteiro não entram nele: cada requisição baixa a sua cópia, apagada ao fechar o canal.
+ */
+@Component
+public class MediaProxyCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MediaProxyCache.class);
+
+    private final StorageService storageService;
+    private final boolean enabled;
+    private final Path directory;
+    private final long maxWeight;
+    private final AsyncCache<String, CachedMedia> cache;
+
+    public MediaProxyCache(StorageService storageService,
+                           @Value("${app.media-proxy.enabled:false}") boolean enabled,
+                           @Value("${app.media-proxy.dir:${java.io.tmpdir}/memory-media-cache}") Path directory,
+                           @Value("${app.media-proxy.max-size:1GB}") DataSize maxSize) throws IOException {
+        this.storageService = storageService;
+        this.enabled = enabled;
+        // Peso em KB: o weigher do Caffeine é int e objetos podem passar de 2 GB somados.
+        this.maxWeight = maxSize.toKilobytes();
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String key, CachedMedia media) -> weightOf(media.size()))
+                .removalListener((String key, CachedMedia media, RemovalCause cause) -> {
+                    if (media != null) {
+                        deleteQuietly(media.file());
+                    }
+                })
+                .recordStats()
+                .buildAsync();
+        if (enabled) {
+            // O índice é só de memória: cada execução começa num subdiretório vazio, apagado no desligamento.
+            Files.createDirectories(directory);
+            this.directory = Files.createTempDirectory(directory, "instance-");
+        } else {
+            this.directory = directory;
+        }
+        log.info("Proxy de mídia {}. Diretório: {}, tamanho máximo: {}", enabled ? "habilitado" : "desabilitado", this.directory, maxSize);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Abre o objeto do cache, baixando-o se preciso. Vazio se o objeto não existir no bucket. Quem chama fecha o canal.
+     */
+    public Optional<ProxiedMedia> open(String objectKey) throws IOException {
+        // Uma segunda tentativa cobre o arquivo despejado entre a consulta ao cache e a abertura.
+        for (int attempt = 1; ; attempt++) {
+            Optional<CachedMedia> media = get(objectKey);
+            if (media.isEmpty()) {
+                return Optional.empty();
+            }
+            if (media.get().uncached()) {
+                return Optional.of(openUncached(media.get()));
+            }
+            try {
+                FileChannel channel = FileChannel.open(media.get().file());
+                return Optional.of(new ProxiedMedia(channel, media.get().size(), media.get().contentType(), media.get().eTag()));
+            } catch (NoSuchFileException e) {
+                cache.synchronous().asMap().remove(objectKey, media.get());
+                if (attempt >= 2) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void deleteOnShutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        cache.synchronous().invalidateAll();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(MediaProxyCache::deleteQuietly);
+        }
+        deleteQuietly(directory);
+    }
+
+    private Optional<CachedMedia> get(String objectKey) throws IOException {
+        CompletableFuture<CachedMedia> loading = new CompletableFuture<>();
+        CompletableFuture<CachedMedia> future = cache.get(objectKey, (key, executor) -> loading);
+        if (future == loading) {
+            try {
+                CachedMedia media = download(objectKey);
+                if (media != null && weightOf(media.size()) > maxWeight) {
+                    // Seria despejado (e apagado) logo ao entrar; quem espera pelo future baixa a própria cópia.
+                    loading.completeExceptionally(new TooLargeToCacheException());
+                    return Optional.of(media.asUncached());
+                }
+                // Um future completado com null (objeto inexistente) sai do cache sozinho.
+                loading.complete(media);
+            } catch (IOException | RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(future.join());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof TooLargeToCacheException) {
+                return Optional.ofNullable(download(objectKey)).map(CachedMedia::asUncached);
+            }
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private CachedMedia download(String objectKey) throws IOException {
+        Path target = directory.resolve(UUID.randomUUID() + ".media");
+        Path temporary = directory.resolve(target.getFileName() + ".tmp");
+        try {
+            Optional<String> contentType = storageService.downloadObject(objectKey, temporary);
+            if (contentType.isEmpty()) {
+                return null;
+            }
+            Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE);
+            long size = Files.size(target);
+            log.debug("Objeto {} baixado para o cache de mídia ({} bytes)", objectKey, size);
+            return new CachedMedia(target, size, contentType.get(), eTagOf(objectKey, size), false);
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(temporary);
+            deleteQuietly(target);
+            throw e;
+        }
+    }
+
+    private static ProxiedMedia openUncached(CachedMedia media) throws IOException {
+        try {
+            FileChannel channel = FileChannel.open(media.file(), StandardOpenOption.READ, StandardOpenOption.DELETE_ON_CLOSE);
+            return new ProxiedMedia(channel, media.size(), media.contentType(), media.eTag());
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(media.file());
+            throw e;
+        }
+    }
+
+    private static int weightOf(long size) {
+        return (int) Math.min(Integer.MAX_VALUE, (size + 1023) / 1024);
+    }
+
+    // As chaves do bucket não são reaproveitadas para outro conteúdo; chave e tamanho identificam a versão.
+    private static String eTagOf(String objectKey, long size) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest((objectKey + ":" + size).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Falha ao apagar arquivo do cache de mídia {}", file, e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "mediaProxy");
+    }
+
+    private record CachedMedia(Path file, long size, String contentType, String eTag, boolean uncached) {
+
+        private CachedMedia asUncached() {
+            return new CachedMedia(file, size, contentType, eTag, true);
+        }
+    }
+
+    // Sem stack trace: só sinaliza a quem espera pelo future que o objeto não foi para o cache.
+    private static final class TooLargeToCacheException extends RuntimeException {
+
+        private TooLargeToCacheException() {
+            super("Objeto maior que o cache de mídia", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura (read-through) de {@link MemoryPageResponse} por slug, limitado por tamanho e TTL.
+ * A carga roda fora do lock do mapa: o cache guarda um future e só uma thread por slug consulta o banco,
+ * sem prender a thread portadora de uma virtual thread durante o JDBC.
+ */
+@Component
+public class MemoryPageCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryPageCache.class);
+
+    private final AsyncCache<String, CachedPage> cache;
+
+    public MemoryPageCache(@Value("${app.cache.memory-page.maximum-size:10000}") long maximumSize,
+                           @Value("${app.cache.memory-page.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .buildAsync();
+        log.info("Cache de MemoryPage configurado. Tamanho máximo: {}, TTL: {}", maximumSize, ttl);
+    }
+
+    /**
+     * Devolve a página do cache ou carrega com {@code loader}. Páginas inexistentes não são cacheadas.
+     * O {@code viewCount} devolvido é o último total informado por {@link #updateViewCounts}, se for maior que o
+     * carregado (a entidade pode vir do cache de segundo nível com a contagem defasada).
+     */
+    public Optional<MemoryPageResponse> get(String slug, Function<String, Optional<MemoryPageResponse>> loader) {
+        CompletableFuture<CachedPage> loading = new CompletableFuture<>();
+        CompletableFuture<CachedPage> future = cache.get(slug, (key, executor) -> loading);
+        if (future == loading) {
+            try {
+                // Um future completado com null sai do cache sozinho.
+                loading.complete(loader.apply(slug).map(CachedPage::new).orElse(null));
+            } catch (RuntimeException e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+        try {
+            return Optional.ofNullable(future.join()).map(CachedPage::toResponse);
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    /**
+     * Devolve a página somente se já estiver no cache, sem carregar do banco.
+     */
+    public Optional<MemoryPageResponse> getIfPresent(String slug) {
+        return loaded(slug).map(CachedPage::toResponse);
+    }
+
+    /**
+     * Atualiza, sem recarregar, a contagem das páginas em cache com os totais gravados no banco.
+     */
+    public void updateViewCounts(Map<String, Long> viewCountsBySlug) {
+        viewCountsBySlug.forEach((slug, viewCount) -> {
+            loaded(slug).ifPresent(cachedPage -> cachedPage.viewCount.accumulateAndGet(viewCount, Math::max));
+        });
+    }
+
+    public void evict(String slug) {
+        cache.synchronous().invalidate(slug);
+    }
+
+    public void evictAll() {
+        cache.synchronous().invalidateAll();
+    }
+
+    /**
+     * Remove a entrada agora e de novo depois do commit da transação atual, para que uma
+     * leitura concorrente não volte a cachear o estado anterior à alteração.
+     */
+    public void evictAfterCommit(String slug) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(slug);
+                }
+            });
+        }
+        evict(slug);
+    }
+
+    // Só entradas já carregadas; uma carga em andamento não bloqueia quem chama.
+    private Optional<CachedPage> loaded(String slug) {
+        CompletableFuture<CachedPage> future = cache.getIfPresent(slug);
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(future.join());
+    }
+
+    public CacheStats stats() {
+        return cache.synchronous().stats();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "memoryPages");
+    }
+
+    private static final class CachedPage {
+
+        private final MemoryPageResponse response;
+        // Fora do estado imutável da página: muda a cada flush do ViewCountBuffer sem invalidar a entrada.
+        private final AtomicLong viewCount;
+
+        private CachedPage(MemoryPageResponse response) {
+            response.setImageUrls(List.copyOf(response.getImageUrls()));
+            response.setImageVariants(Map.copyOf(response.getImageVariants()));
+            this.response = response;
+            this.viewCount = new AtomicLong(response.getViewCount());
+        }
+
+        private MemoryPageResponse toResponse() {
+            return new MemoryPageResponse(
+                    response.getId(),
+                    response.getSlug(),
+                    response.getTitle(),
+                    response.getDedicatedText(),
+                    response.getImageUrls(),
+                    response.getImageVariants(),
+                    response.getMusicUrl(),
+                    response.getTargetDate(),
+                    response.getCreationDate(),
+                    viewCount.get(),
+                    response.getVersion(),
+                    response.getLastModifiedDate()
+            );
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.pp.memorysitebackend.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Escuta (LISTEN) o canal de {@link MemoryPageInvalidator} numa conexão própria, fora do pool, e aplica nos caches
+ * locais as alterações feitas por outras instâncias. Se a conexão cair, reconecta e descarta os caches inteiros,
+ * já que as notificações do intervalo se perderam.
+ */
+@Component
+@ConditionalOnProperty(name = "app.cache.invalidation.enabled", havingValue = "true", matchIfMissing = true)
+public class MemoryPageInvalidationListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryPageInvalidationListener.class);
+
+    private final MemoryPageInvalidator memoryPageInvalidator;
+    private final DataSourceProperties dataSourceProperties;
+    private final Duration pollTimeout;
+    private final Duration reconnectDelay;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    public MemoryPageInvalidationListener(MemoryPageInvalidator memoryPageInvalidator,
+                                          DataSourceProperties dataSourceProperties,
+                                          @Value("${app.cache.invalidation.poll-timeout:5s}") Duration pollTimeout,
+                                          @Value("${app.cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        this.memoryPageInvalidator = memoryPageInvalidator;
+        this.dataSourceProperties = dataSourceProperties;
+        this.pollTimeout = pollTimeout;
+        this.reconnectDelay = reconnectDelay;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        listenerThread = new Thread(this::listen, "memory-page-invalidation");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + MemoryPageInvalidator.CHANNEL);
+                }
+                if (reconnecting) {
+                    memoryPageInvalidator.evictAll();
+                    log.info("Escuta de invalidação de cache restabelecida. Caches locais de MemoryPage descartados.");
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollTimeout.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            memoryPageInvalidator.applyNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                reconnecting = true;
+                log.warn("Escuta de invalidação de cache interrompida. Nova tentativa em {}.", reconnectDelay, e);
+                try {
+                    Thread.sleep(reconnectDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
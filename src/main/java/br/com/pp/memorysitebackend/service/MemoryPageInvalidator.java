@@ -0,0 +1,141 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Mantém coerentes os caches de MemoryPage de todas as instâncias: o de respostas por slug ({@link MemoryPageCache}),
+ * os snapshots em disco ({@link PageSnapshotStore}) e o de segundo nível do Hibernate; páginas removidas também saem
+ * do ranking ({@link TrendingTracker}). Cada alteração publica um NOTIFY na própria transação; o Postgres só entrega
+ * a notificação no commit, então as outras instâncias ({@link MemoryPageInvalidationListener}) descartam suas
+ * cópias apenas de alterações confirmadas.
+ */
+@Component
+public class MemoryPageInvalidator {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryPageInvalidator.class);
+
+    public static final String CHANNEL = "memory_page_invalidation";
+
+    private static final String UPDATED = "updated";
+    private static final String DELETED = "deleted";
+
+    private static final String NOTIFY_SQL = "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload";
+
+    // Identifica as notificações desta instância, que já atualizou os próprios caches.
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final MemoryPageCache memoryPageCache;
+    private final PageSnapshotStore pageSnapshotStore;
+    private final TrendingTracker trendingTracker;
+    private final JdbcTemplate jdbcTemplate;
+    private final SessionFactory sessionFactory;
+    private final Counter remoteInvalidationCounter;
+
+    public MemoryPageInvalidator(MemoryPageCache memoryPageCache,
+                                 PageSnapshotStore pageSnapshotStore,
+                                 TrendingTracker trendingTracker,
+                                 JdbcTemplate jdbcTemplate,
+                                 EntityManagerFactory entityManagerFactory,
+                                 MeterRegistry meterRegistry) {
+        this.memoryPageCache = memoryPageCache;
+        this.pageSnapshotStore = pageSnapshotStore;
+        this.trendingTracker = trendingTracker;
+        this.jdbcTemplate = jdbcTemplate;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        this.remoteInvalidationCounter = Counter.builder("memory.cache.remote.invalidations")
+                .description("Páginas descartadas dos caches locais por alterações feitas em outras instâncias")
+                .register(meterRegistry);
+    }
+
+    public void invalidateAfterCommit(MemoryPage page) {
+        invalidateAfterCommit(List.of(page));
+    }
+
+    /**
+     * Deve rodar na transação que altera as páginas, para que o NOTIFY só saia se ela for confirmada.
+     */
+    public void invalidateAfterCommit(Collection<MemoryPage> pages) {
+        publish(pages, UPDATED);
+    }
+
+    /**
+     * Como {@link #invalidateAfterCommit(Collection)}; a página só sai do ranking se a remoção for confirmada.
+     */
+    public void invalidateDeletedAfterCommit(MemoryPage page) {
+        publish(List.of(page), DELETED);
+        String slug = page.getSlug();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    trendingTracker.remove(slug);
+                }
+            });
+        } else {
+            trendingTracker.remove(slug);
+        }
+    }
+
+    private void publish(Collection<MemoryPage> pages, String change) {
+        if (pages.isEmpty()) {
+            return;
+        }
+        pages.forEach(page -> {
+            memoryPageCache.evictAfterCommit(page.getSlug());
+            pageSnapshotStore.evict(page.getSlug());
+        });
+        String[] payloads = pages.stream()
+                .map(page -> String.join(":", instanceId, change, String.valueOf(page.getId()), page.getSlug()))
+                .toArray(String[]::new);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(NOTIFY_SQL);
+            statement.setString(1, CHANNEL);
+            statement.setArray(2, connection.createArrayOf("text", payloads));
+            return statement;
+        }, rs -> null);
+    }
+
+    void applyNotification(String payload) {
+        String[] parts = payload.split(":", 4);
+        if (parts.length != 4) {
+            log.warn("Notificação de invalidação de cache ignorada: {}", payload);
+            return;
+        }
+        if (parts[0].equals(instanceId)) {
+            return;
+        }
+        memoryPageCache.evict(parts[3]);
+        pageSnapshotStore.evict(parts[3]);
+        sessionFactory.getCache().evictEntityData(MemoryPage.class, Long.valueOf(parts[2]));
+        if (DELETED.equals(parts[1])) {
+            // O slug pode voltar a ser usado por outra página; a resolução slug -> id em cache ficaria errada.
+            sessionFactory.getCache().evictNaturalIdData(MemoryPage.class);
+            trendingTracker.remove(parts[3]);
+        }
+        remoteInvalidationCounter.increment();
+    }
+
+    /**
+     * Descarta tudo: usado quando a escuta cai e notificações podem ter sido perdidas.
+     */
+    void evictAll() {
+        memoryPageCache.evictAll();
+        sessionFactory.getCache().evictEntityData(MemoryPage.class);
+        sessionFactory.getCache().evictNaturalIdData(MemoryPage.class);
+    }
+}
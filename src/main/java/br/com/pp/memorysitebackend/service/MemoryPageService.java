@@ -1,20 +1,68 @@
 package br.com.pp.memorysitebackend.service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import br.com.pp.memorysitebackend.dto.BatchCreateResult;
 import br.com.pp.memorysitebackend.dto.CreateMemoryPageRequest;
 import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.dto.MemoryPageSummary;
+import br.com.pp.memorysitebackend.dto.MemoryPageVersion;
+import br.com.pp.memorysitebackend.dto.CompleteDirectUploadRequest;
+import br.com.pp.memorysitebackend.dto.DirectUploadRequest;
+import br.com.pp.memorysitebackend.dto.DirectUploadResponse;
+import br.com.pp.memorysitebackend.dto.MusicUploadResponse;
+import br.com.pp.memorysitebackend.dto.PageViewStatsResponse;
+import br.com.pp.memorysitebackend.dto.ProxiedMedia;
+import br.com.pp.memorysitebackend.dto.QrCodeFormat;
+import br.com.pp.memorysitebackend.dto.QrCodeImage;
+import br.com.pp.memorysitebackend.dto.StartMusicUploadRequest;
+import br.com.pp.memorysitebackend.dto.TrendingResponse;
+import br.com.pp.memorysitebackend.dto.UploadedPartResponse;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface MemoryPageService {
 
     MemoryPageResponse createMemoryPage(CreateMemoryPageRequest requestDto);
 
-    Optional<MemoryPageResponse> getMemoryPageBySlug(String slug);
+    List<BatchCreateResult> createMemoryPages(List<CreateMemoryPageRequest> requests);
 
-    List<MemoryPageResponse> getAllMemoryPages();
+    /**
+     * {@code visitorId} identifica o visitante nas estatísticas de visitantes únicos; só o hash é usado.
+     */
+    Optional<MemoryPageResponse> getMemoryPageBySlug(String slug, String visitorId);
+
+    Optional<MemoryPageVersion> getMemoryPageVersion(String slug);
+
+    /**
+     * Snapshot em disco do JSON da página, se for da versão informada e estiver fresco. Quem chama fecha o canal.
+     */
+    Optional<FileChannel> openPageSnapshot(String slug, long version, boolean gzip);
+
+    /**
+     * Mídia da página pelo cache em disco do proxy: os índices seguem {@code imageUrls} e, depois das imagens,
+     * vem a música. Vazio se o proxy estiver desligado, o índice não existir ou a URL não for do bucket.
+     */
+    Optional<ProxiedMedia> openPageMedia(String slug, int index) throws IOException;
+
+    void registerView(String slug, String visitorId);
+
+    /**
+     * Visualizações e visitantes únicos dos últimos {@code days} dias, incluindo hoje. Vazio se a página não existe.
+     */
+    Optional<PageViewStatsResponse> getPageViewStats(String slug, int days);
+
+    TrendingResponse getTrendingPages(String window, int limit);
+
+    List<MemoryPageResponse> getMemoryPages(Long afterId, int limit);
+
+    List<MemoryPageSummary> getMemoryPageSummaries(Long afterId, int limit);
+
+    void streamAllMemoryPages(Consumer<MemoryPageResponse> consumer);
 
     Optional<MemoryPageResponse> updateMemoryPage(String slug, CreateMemoryPageRequest updatedPageData);
 
@@ -22,8 +70,24 @@ public interface MemoryPageService {
 
     List<String> uploadAndAssociateImages(String slug, List<MultipartFile> files) throws IOException, IllegalArgumentException;
 
-    byte[] generateQrCodeForSlug(String slug) throws IOException, IllegalArgumentException;
+    QrCodeImage generateQrCodeForSlug(String slug, int size, QrCodeFormat format) throws IOException, IllegalArgumentException;
+
+    String getQrCodeETag(String slug, int size, QrCodeFormat format) throws IllegalArgumentException;
 
     String uploadAndAssociateMusic(String slug, MultipartFile musicFile) throws IOException, IllegalArgumentException;
 
+    DirectUploadResponse startDirectUpload(String slug, DirectUploadRequest request) throws IllegalArgumentException;
+
+    String completeDirectUpload(String slug, CompleteDirectUploadRequest request) throws IOException, IllegalArgumentException;
+
+    MusicUploadResponse startMusicUpload(String slug, StartMusicUploadRequest request) throws IllegalArgumentException;
+
+    UploadedPartResponse uploadMusicPart(String slug, String uploadId, String objectKey, int partNumber, InputStream content) throws IOException, IllegalArgumentException;
+
+    MusicUploadResponse getMusicUpload(String slug, String uploadId, String objectKey) throws IllegalArgumentException;
+
+    String completeMusicUpload(String slug, String uploadId, String objectKey) throws IOException, IllegalArgumentException;
+
+    void abortMusicUpload(String slug, String uploadId, String objectKey) throws IllegalArgumentException;
+
 }
\ No newline at end of file
@@ -1,33 +1,59 @@
 package br.com.pp.memorysitebackend.service;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
 import org.springframework.beans.factory.annotation.Value;
-import net.glxn.qrgen.javase.QRCode;
-import net.glxn.qrgen.core.image.ImageType;
+import br.com.pp.memorysitebackend.dto.BatchCreateResult;
+import br.com.pp.memorysitebackend.dto.CompleteDirectUploadRequest;
 import br.com.pp.memorysitebackend.dto.CreateMemoryPageRequest;
+import br.com.pp.memorysitebackend.dto.DailyPageViews;
+import br.com.pp.memorysitebackend.dto.DirectUploadRequest;
+import br.com.pp.memorysitebackend.dto.DirectUploadResponse;
+import br.com.pp.memorysitebackend.dto.ImageVariantResponse;
+import br.com.pp.memorysitebackend.dto.MediaKind;
 import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.dto.MemoryPageSummary;
+import br.com.pp.memorysitebackend.dto.MemoryPageVersion;
+import br.com.pp.memorysitebackend.dto.MusicUploadResponse;
+import br.com.pp.memorysitebackend.dto.PageViewBucket;
+import br.com.pp.memorysitebackend.dto.PageViewStatsResponse;
+import br.com.pp.memorysitebackend.dto.ProxiedMedia;
+import br.com.pp.memorysitebackend.dto.QrCodeFormat;
+import br.com.pp.memorysitebackend.dto.QrCodeImage;
+import br.com.pp.memorysitebackend.dto.StartMusicUploadRequest;
+import br.com.pp.memorysitebackend.dto.TrendingResponse;
+import br.com.pp.memorysitebackend.dto.UploadedPartResponse;
+import br.com.pp.memorysitebackend.entity.ImageVariant;
 import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.exception.DataIntegrityViolations;
 import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.text.Normalizer;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.UUID;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import software.amazon.awssdk.core.sync.RequestBody;
-import software.amazon.awssdk.services.s3.S3Client;
-import software.amazon.awssdk.services.s3.model.PutObjectRequest;
-import software.amazon.awssdk.services.s3.model.PutObjectResponse;
-import java.net.URLEncoder;
-import java.nio.charset.StandardCharsets;
 import org.springframework.web.multipart.MultipartFile;
-import java.time.Instant;
+import java.time.LocalDateTime;
 
 
 @Service
@@ -37,71 +63,291 @@ public class MemoryPageServiceImpl implements MemoryPageService {
     private final MemoryPageRepository memoryPageRepository;
     private static final Logger log = LoggerFactory.getLogger(MemoryPageServiceImpl.class);
 
-    private static final Pattern NON_ALPHANUMERIC_OR_HYPHEN = Pattern.compile("[^a-z0-9-]");
-    private static final Pattern HYPHEN_DUPLICATES = Pattern.compile("-{2,}");
+    private static final int MAX_SLUG_ALLOCATION_ATTEMPTS = 3;
+
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_SIZE = 500;
+
+    private final ViewCountBuffer viewCountBuffer;
+    private final MemoryPageCache memoryPageCache;
+    private final SlugAllocator slugAllocator;
+    private final TransactionTemplate transactionTemplate;
+    private final StorageService storageService;
+    private final PartBufferPool partBufferPool;
+    private final QrCodeRenderer qrCodeRenderer;
+    private final ImageDerivativeService imageDerivativeService;
+    private final Validator validator;
+    private final MediaIndex mediaIndex;
+    private final StorageGarbageCollector storageGarbageCollector;
+    private final MemoryPageInvalidator memoryPageInvalidator;
+    private final TrendingTracker trendingTracker;
+    private final PageViewAnalytics pageViewAnalytics;
+    private final PageSnapshotStore pageSnapshotStore;
+    private final MediaProxyCache mediaProxyCache;
 
-    private final S3Client s3Client;
 
+    @Value("${app.base-url}")
+    private String appBaseUrl;
 
-    @Value("${supabase.api.url}")
-    private String supabaseApiUrl;
+    @Value("${app.storage.direct-upload.max-image-size:10MB}")
+    private DataSize maxDirectImageSize;
 
-    @Value("${supabase.bucket.name}")
-    private String supabaseBucketName;
+    @Value("${app.storage.direct-upload.max-music-size:100MB}")
+    private DataSize maxDirectMusicSize;
 
-    @Value("${app.base-url}")
-    private String appBaseUrl;
-    @Override
-    @Transactional
+    @Value("${app.analytics.zone:America/Sao_Paulo}")
+    private ZoneId statsZone;
+
+    @Value("${app.analytics.max-days:90}")
+    private int maxStatsDays;
 
+    @Override
     public MemoryPageResponse createMemoryPage(CreateMemoryPageRequest requestDto) {
         if (requestDto.getImageUrls() != null && requestDto.getImageUrls().size() > 7) {
             throw new IllegalArgumentException("Máximo de 7 imagens permitido.");
         }
 
-        MemoryPage memoryPage = mapToEntity(requestDto);
+        String baseSlug = resolveBaseSlug(requestDto);
 
-        String finalSlug;
-        if (requestDto.getSuggestedSlug() != null && !requestDto.getSuggestedSlug().isBlank()) {
-            finalSlug = generateUniqueSlug(requestDto.getSuggestedSlug());
-        } else {
-            String baseSlug = sanitizeSlug(requestDto.getDedicatedText().substring(0, Math.min(requestDto.getDedicatedText().length(), 30)));
-            if (baseSlug.isEmpty()) { baseSlug = "memoria"; }
-            finalSlug = generateUniqueSlug(baseSlug);
+        // A constraint única de slug só é verificada no INSERT; criações concorrentes com a mesma
+        // base podem colidir, então cada tentativa roda em sua própria transação.
+        for (int attempt = 1; ; attempt++) {
+            try {
+                MemoryPage savedPage = transactionTemplate.execute(status -> {
+                    MemoryPage memoryPage = mapToEntity(requestDto);
+                    memoryPage.setSlug(slugAllocator.generateUniqueSlug(baseSlug));
+                    memoryPage.setId(null);
+                    memoryPage.setViewCount(0);
+                    markModified(memoryPage);
+                    MemoryPage saved = memoryPageRepository.saveAndFlush(memoryPage);
+                    mediaIndex.updateReferences(List.of(), mediaUrlsOf(saved));
+                    return saved;
+                });
+                slugAllocator.recordAttempts(attempt);
+                log.info("MemoryPage criada com slug: {}", savedPage.getSlug());
+                MemoryPageResponse response = mapToDto(savedPage);
+                pageSnapshotStore.writeAfterCommit(() -> response);
+                return response;
+            } catch (DataIntegrityViolationException e) {
+                if (!DataIntegrityViolations.isUniqueViolation(e) || attempt >= MAX_SLUG_ALLOCATION_ATTEMPTS) {
+                    throw e;
+                }
+                slugAllocator.recordConstraintCollision();
+                log.warn("Slug para a base '{}' foi ocupado concorrentemente. Tentativa {} de {}", baseSlug, attempt, MAX_SLUG_ALLOCATION_ATTEMPTS);
+            }
+        }
+    }
+
+    /**
+     * Cria as páginas válidas do lote numa única transação: slugs escolhidos com uma consulta e INSERTs
+     * em lotes JDBC. Se outra criação concorrente ocupar algum slug, o lote é refeito uma vez e, persistindo
+     * o conflito ou havendo outra violação de integridade, cada página é criada individualmente, para que um
+     * item não derrube os demais.
+     */
+    @Override
+    public List<BatchCreateResult> createMemoryPages(List<CreateMemoryPageRequest> requests) {
+        if (requests.isEmpty() || requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("O lote deve ter entre 1 e " + MAX_BATCH_SIZE + " páginas.");
+        }
+        BatchCreateResult[] results = new BatchCreateResult[requests.size()];
+        List<Integer> validIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            Map<String, String> violations = validate(requests.get(i));
+            if (violations.isEmpty()) {
+                validIndexes.add(i);
+            } else {
+                results[i] = BatchCreateResult.invalid(i, violations);
+            }
+        }
+
+        List<CreateMemoryPageRequest> validRequests = validIndexes.stream().map(requests::get).toList();
+        List<MemoryPage> savedPages = null;
+        for (int attempt = 1; attempt <= 2 && savedPages == null && !validRequests.isEmpty(); attempt++) {
+            try {
+                savedPages = insertBatch(validRequests);
+            } catch (DataIntegrityViolationException e) {
+                if (!DataIntegrityViolations.isUniqueViolation(e)) {
+                    // Violação de um item específico (NOT NULL, tamanho de coluna...): repetir o lote falharia de novo.
+                    log.warn("Violação de integridade na criação em lote; criando as páginas individualmente: {}", e.getMostSpecificCause().getMessage());
+                    break;
+                }
+                slugAllocator.recordConstraintCollision();
+                log.warn("Slug ocupado concorrentemente durante criação em lote. Tentativa {} de 2", attempt);
+            }
+        }
+
+        for (int i = 0; i < validIndexes.size(); i++) {
+            int index = validIndexes.get(i);
+            if (savedPages != null) {
+                results[index] = BatchCreateResult.created(index, mapToDto(savedPages.get(i)));
+                continue;
+            }
+            try {
+                results[index] = BatchCreateResult.created(index, createMemoryPage(validRequests.get(i)));
+            } catch (RuntimeException e) {
+                log.error("Falha ao criar página {} do lote", index, e);
+                results[index] = BatchCreateResult.failed(index, e.getMessage());
+            }
         }
-        memoryPage.setSlug(finalSlug);
+        log.info("Lote de {} páginas processado: {} criadas", requests.size(),
+                Arrays.stream(results).filter(result -> result.getStatus() == BatchCreateResult.Status.CREATED).count());
+        return List.of(results);
+    }
 
-        memoryPage.setId(null);
-        memoryPage.setViewCount(0);
-        memoryPage.setSynced(false);
+    private List<MemoryPage> insertBatch(List<CreateMemoryPageRequest> requests) {
+        return transactionTemplate.execute(status -> {
+            List<String> slugs = slugAllocator.generateUniqueSlugs(requests.stream().map(this::resolveBaseSlug).toList());
+            List<MemoryPage> pages = new ArrayList<>(requests.size());
+            for (int i = 0; i < requests.size(); i++) {
+                MemoryPage memoryPage = mapToEntity(requests.get(i));
+                memoryPage.setSlug(slugs.get(i));
+                markModified(memoryPage);
+                pages.add(memoryPage);
+            }
+            List<MemoryPage> saved = memoryPageRepository.saveAll(pages);
+            memoryPageRepository.flush();
+            mediaIndex.updateReferences(List.of(), saved.stream().flatMap(page -> mediaUrlsOf(page).stream()).toList());
+            return saved;
+        });
+    }
 
-        MemoryPage savedPage = memoryPageRepository.save(memoryPage);
-        log.info("MemoryPage criada com slug: {}", savedPage.getSlug());
-        return mapToDto(savedPage);
+    private Map<String, String> validate(CreateMemoryPageRequest request) {
+        if (request == null) {
+            return Map.of("request", "Item vazio.");
+        }
+        Map<String, String> violations = new LinkedHashMap<>();
+        for (ConstraintViolation<CreateMemoryPageRequest> violation : validator.validate(request)) {
+            violations.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        return violations;
     }
 
     @Override
-    @Transactional
-    public Optional<MemoryPageResponse> getMemoryPageBySlug(String slug) {
-        Optional<MemoryPage> pageOptional = memoryPageRepository.findBySlug(slug);
-        if (pageOptional.isPresent()) {
-            MemoryPage page = pageOptional.get();
-            page.setViewCount(page.getViewCount() + 1);
-            memoryPageRepository.save(page);
-            return Optional.of(mapToDto(page));
+    public Optional<MemoryPageResponse> getMemoryPageBySlug(String slug, String visitorId) {
+        Optional<MemoryPageResponse> responseOptional = memoryPageCache.get(slug,
+                key -> memoryPageRepository.findBySlug(key).map(MemoryPageServiceImpl::mapToDto));
+        responseOptional.ifPresent(response -> {
+            response.setViewCount(response.getViewCount() + viewCountBuffer.increment(slug));
+            trendingTracker.record(slug);
+            pageViewAnalytics.record(slug, visitorId);
+            pageSnapshotStore.refreshIfSettled(response);
+        });
+        return responseOptional;
+    }
+
+    @Override
+    public Optional<MemoryPageVersion> getMemoryPageVersion(String slug) {
+        Optional<MemoryPageResponse> cached = memoryPageCache.getIfPresent(slug);
+        if (cached.isPresent()) {
+            return cached.map(page -> new MemoryPageVersion(page.getVersion(), page.getLastModifiedDate()));
+        }
+        return memoryPageRepository.findVersionBySlug(slug);
+    }
+
+    @Override
+    public Optional<FileChannel> openPageSnapshot(String slug, long version, boolean gzip) {
+        return pageSnapshotStore.open(slug, version, gzip);
+    }
+
+    @Override
+    public Optional<ProxiedMedia> openPageMedia(String slug, int index) throws IOException {
+        if (!mediaProxyCache.isEnabled()) {
+            return Optional.empty();
+        }
+        Optional<MemoryPageResponse> page = memoryPageCache.get(slug,
+                key -> memoryPageRepository.findBySlug(key).map(MemoryPageServiceImpl::mapToDto));
+        if (page.isEmpty()) {
+            return Optional.empty();
+        }
+        List<String> mediaUrls = new ArrayList<>(page.get().getImageUrls());
+        if (page.get().getMusicUrl() != null) {
+            mediaUrls.add(page.get().getMusicUrl());
+        }
+        if (index < 0 || index >= mediaUrls.size()) {
+            return Optional.empty();
+        }
+        // URLs externas ao bucket não passam pelo proxy.
+        Optional<String> objectKey = storageService.findObjectKey(mediaUrls.get(index));
+        return objectKey.isPresent() ? mediaProxyCache.open(objectKey.get()) : Optional.empty();
+    }
+
+    @Override
+    public void registerView(String slug, String visitorId) {
+        viewCountBuffer.increment(slug);
+        trendingTracker.record(slug);
+        pageViewAnalytics.record(slug, visitorId);
+    }
+
+    @Override
+    public Optional<PageViewStatsResponse> getPageViewStats(String slug, int days) {
+        if (days < 1 || days > maxStatsDays) {
+            throw new IllegalArgumentException("O período deve ter entre 1 e " + maxStatsDays + " dias.");
+        }
+        if (getMemoryPageVersion(slug).isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDate to = LocalDate.now(statsZone);
+        LocalDate from = to.minusDays(days - 1L);
+        List<PageViewBucket> dailyBuckets = pageViewAnalytics.findDailyViewStats(slug,
+                from.atStartOfDay(statsZone).toInstant(), statsZone);
+
+        List<DailyPageViews> dailyViews = new ArrayList<>(dailyBuckets.size());
+        HyperLogLog periodVisitors = new HyperLogLog();
+        long periodViews = 0;
+        for (PageViewBucket bucket : dailyBuckets) {
+            HyperLogLog dayVisitors = HyperLogLog.wrap(bucket.getVisitorsSketch());
+            periodVisitors.merge(dayVisitors);
+            periodViews += bucket.getViews();
+            dailyViews.add(new DailyPageViews(bucket.getBucketStart().atZone(statsZone).toLocalDate(),
+                    bucket.getViews(), dayVisitors.estimate()));
+        }
+        return Optional.of(new PageViewStatsResponse(slug, statsZone.getId(), from, to, periodViews,
+                periodVisitors.estimate(), dailyViews));
+    }
+
+    @Override
+    public TrendingResponse getTrendingPages(String window, int limit) {
+        if (limit < 1 || limit > trendingTracker.maxResults()) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + trendingTracker.maxResults() + ".");
         }
-        return Optional.empty();
+        Duration duration;
+        try {
+            duration = DurationStyle.detectAndParse(window);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Janela inválida: " + window);
+        }
+        TrendingTracker.Ranking ranking = trendingTracker.top(duration, limit);
+        return new TrendingResponse(window, ranking.generatedAt(), ranking.pages());
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<MemoryPageResponse> getAllMemoryPages() {
-        return memoryPageRepository.findAll()
+    public List<MemoryPageResponse> getMemoryPages(Long afterId, int limit) {
+        validatePageSize(limit);
+        return memoryPageRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, Limit.of(limit))
                 .stream()
-                .map(this::mapToDto)
+                .map(MemoryPageServiceImpl::mapToDto)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<MemoryPageSummary> getMemoryPageSummaries(Long afterId, int limit) {
+        validatePageSize(limit);
+        return memoryPageRepository.findSummariesAfterId(afterId != null ? afterId : 0L, Limit.of(limit));
+    }
+
+    private static void validatePageSize(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("O limite deve estar entre 1 e " + MAX_PAGE_SIZE + ".");
+        }
+    }
+
+    @Override
+    public void streamAllMemoryPages(Consumer<MemoryPageResponse> consumer) {
+        memoryPageRepository.streamAllOrderedById(page -> consumer.accept(mapToDto(page)));
+    }
+
     @Override
     @Transactional
     public Optional<MemoryPageResponse> updateMemoryPage(String slug, CreateMemoryPageRequest updatedPageData) {
@@ -109,6 +355,8 @@ public class MemoryPageServiceImpl implements MemoryPageService {
 
         if (existingPageOptional.isPresent()) {
             MemoryPage existingPage = existingPageOptional.get();
+            List<String> previousMediaUrls = mediaUrlsOf(existingPage);
+            Set<String> previousStoredUrls = storedUrlsOf(existingPage);
 
             if (updatedPageData.getImageUrls() != null && updatedPageData.getImageUrls().size() > 7) {
                 throw new IllegalArgumentException("Máximo de 7 imagens permitido.");
@@ -122,6 +370,7 @@ public class MemoryPageServiceImpl implements MemoryPageService {
             if (updatedPageData.getImageUrls() != null) {
                 existingPage.getImageUrls().clear();
                 existingPage.getImageUrls().addAll(updatedPageData.getImageUrls());
+                existingPage.getImageVariants().keySet().retainAll(existingPage.getImageUrls());
             }
             if (updatedPageData.getMusicUrl() != null) {
                 existingPage.setMusicUrl(updatedPageData.getMusicUrl());
@@ -129,9 +378,13 @@ public class MemoryPageServiceImpl implements MemoryPageService {
             if (updatedPageData.getTargetDate() != null) {
                 existingPage.setTargetDate(updatedPageData.getTargetDate());
             }
-            existingPage.setSynced(false);
+            markModified(existingPage);
 
             MemoryPage savedPage = memoryPageRepository.save(existingPage);
+            mediaIndex.updateReferences(previousMediaUrls, mediaUrlsOf(savedPage));
+            releaseStoredUrls(previousStoredUrls, savedPage);
+            memoryPageInvalidator.invalidateAfterCommit(savedPage);
+            pageSnapshotStore.writeAfterCommit(() -> mapToDto(savedPage));
             return Optional.of(mapToDto(savedPage));
         } else {
             return Optional.empty();
@@ -145,6 +398,10 @@ public class MemoryPageServiceImpl implements MemoryPageService {
         Optional<MemoryPage> pageOptional = memoryPageRepository.findBySlug(slug);
         if (pageOptional.isPresent()) {
             memoryPageRepository.delete(pageOptional.get());
+            mediaIndex.updateReferences(mediaUrlsOf(pageOptional.get()), List.of());
+            storageGarbageCollector.enqueue(storedUrlsOf(pageOptional.get()));
+            memoryPageInvalidator.invalidateDeletedAfterCommit(pageOptional.get());
+            qrCodeRenderer.evict(slug);
             log.info("MemoryPage deletada com slug: {}", slug);
             return true;
         } else {
@@ -163,57 +420,71 @@ public class MemoryPageServiceImpl implements MemoryPageService {
         return entity;
     }
 
-    private MemoryPageResponse mapToDto(MemoryPage entity) {
+    static MemoryPageResponse mapToDto(MemoryPage entity) {
         return new MemoryPageResponse(
                 entity.getId(),
                 entity.getSlug(),
                 entity.getTitle(),
                 entity.getDedicatedText(),
                 entity.getImageUrls() != null ? new ArrayList<>(entity.getImageUrls()) : new ArrayList<>(),
+                mapVariantsToDto(entity.getImageVariants()),
                 entity.getMusicUrl(),
                 entity.getTargetDate(),
                 entity.getCreationDate(),
-                entity.getViewCount()
+                entity.getViewCount(),
+                entity.getVersion(),
+                entity.getLastModifiedDate()
         );
     }
 
-    private String generateUniqueSlug(String baseSuggestion) {
-        String currentSlug = sanitizeSlug(baseSuggestion);
-        if (currentSlug.isEmpty()) {
-            currentSlug = UUID.randomUUID().toString().substring(0, 8);
-        }
-        int attempt = 0;
-        String originalSlug = currentSlug;
-
-        while (memoryPageRepository.findBySlug(currentSlug).isPresent()) {
-            attempt++;
-            String suffix = "-" + attempt;
-            int maxBaseLength = 50 - suffix.length();
-            String base = originalSlug.substring(0, Math.min(originalSlug.length(), maxBaseLength));
-            currentSlug = base + suffix;
-            log.warn("Colisão de slug detectada para '{}'. Tentando '{}'", baseSuggestion, currentSlug);
-            if (attempt > 10) {
-                log.error("Muitas tentativas de gerar slug único para base: {}. Usando UUID como fallback.", baseSuggestion);
-                currentSlug = UUID.randomUUID().toString().substring(0, 12);
-                if (memoryPageRepository.findBySlug(currentSlug).isPresent()) {
-                    throw new IllegalStateException("Não foi possível gerar slug único após múltiplas tentativas e fallback.");
-                }
-                break;
-            }
+    private static Map<String, List<ImageVariantResponse>> mapVariantsToDto(Map<String, List<ImageVariant>> imageVariants) {
+        Map<String, List<ImageVariantResponse>> variants = new LinkedHashMap<>();
+        if (imageVariants != null) {
+            imageVariants.forEach((originalUrl, urlVariants) -> variants.put(originalUrl, urlVariants.stream()
+                    .map(variant -> new ImageVariantResponse(variant.getWidth(), variant.getUrl()))
+                    .toList()));
+        }
+        return variants;
+    }
+
+    // URLs de mídia referenciadas pela página, com repetições (cada ocorrência conta no ref_count).
+    private static List<String> mediaUrlsOf(MemoryPage page) {
+        List<String> urls = new ArrayList<>(page.getImageUrls());
+        if (page.getMusicUrl() != null) {
+            urls.add(page.getMusicUrl());
         }
-        return currentSlug;
+        return urls;
     }
 
-    private String sanitizeSlug(String input) {
-        if (input == null || input.isBlank()) { return ""; }
-        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
-        String withoutAccents = normalized.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-        String lowerCase = withoutAccents.toLowerCase();
-        String replaced = NON_ALPHANUMERIC_OR_HYPHEN.matcher(lowerCase).replaceAll("-");
-        String collapsedHyphens = HYPHEN_DUPLICATES.matcher(replaced).replaceAll("-");
-        return collapsedHyphens.replaceAll("^-|-$", "");
+    // Todos os objetos do bucket que a página usa: imagens, suas variantes e a música.
+    private static Set<String> storedUrlsOf(MemoryPage page) {
+        Set<String> urls = new LinkedHashSet<>(mediaUrlsOf(page));
+        page.getImageVariants().values().forEach(variants -> variants.forEach(variant -> urls.add(variant.getUrl())));
+        return urls;
     }
-    @Transactional
+
+    // Enfileira para remoção o que a página deixou de usar; o coletor ainda confere se outras páginas usam.
+    private void releaseStoredUrls(Set<String> previousStoredUrls, MemoryPage page) {
+        Set<String> released = new LinkedHashSet<>(previousStoredUrls);
+        released.removeAll(storedUrlsOf(page));
+        storageGarbageCollector.enqueue(released);
+    }
+
+    private static void markModified(MemoryPage page) {
+        page.setSynced(false);
+        page.setLastModifiedDate(LocalDateTime.now());
+    }
+
+    private String resolveBaseSlug(CreateMemoryPageRequest requestDto) {
+        if (requestDto.getSuggestedSlug() != null && !requestDto.getSuggestedSlug().isBlank()) {
+            return requestDto.getSuggestedSlug();
+        }
+        String baseSlug = slugAllocator.sanitizeSlug(requestDto.getDedicatedText().substring(0, Math.min(requestDto.getDedicatedText().length(), 30)));
+        return baseSlug.isEmpty() ? "memoria" : baseSlug;
+    }
+
+    // Sem @Transactional: os uploads (lentos) acontecem fora de transação e só a
+    // associação das URLs abre uma transação curta no final.
     @Override
     public List<String> uploadAndAssociateImages(String slug, List<MultipartFile> files) throws IOException, IllegalArgumentException {
         MemoryPage memoryPage = memoryPageRepository.findBySlug(slug)
@@ -224,81 +495,105 @@ public class MemoryPageServiceImpl implements MemoryPageService {
         if (files == null || files.isEmpty()) { throw new IllegalArgumentException("Nenhum arquivo enviado."); }
         if (existingImageUrls.size() + files.size() > 7) { throw new IllegalArgumentException("Limite de 7 imagens excedido."); }
 
-        List<String> savedPublicUrls = new ArrayList<>();
-
-        for (MultipartFile file : files) {
-            if (file.isEmpty()) { continue; }
-
-            String originalFilename = file.getOriginalFilename();
-            String extension = "";
-            if (originalFilename != null && originalFilename.contains(".")) {
-                extension = originalFilename.substring(originalFilename.lastIndexOf("."));
-            }
-            String objectKey = "images/" + slug + "_" + Instant.now().toEpochMilli() + "_" + UUID.randomUUID().toString().substring(0,6) + extension;
+        List<String> savedPublicUrls = storageService.uploadImages(slug, files);
 
-            log.info("Fazendo upload para Supabase Storage. Bucket: '{}', Key: '{}'", supabaseBucketName, objectKey);
+        try {
+            associateImages(slug, savedPublicUrls);
+        } catch (RuntimeException e) {
+            // Os objetos ficam no índice sem a referência desta página; podem estar em uso por outras.
+            log.error("Falha ao associar URLs de imagem ao slug {}.", slug, e);
+            throw e;
+        }
+        log.info("URLs de imagem (Supabase) atualizadas para slug {}: {}", slug, savedPublicUrls);
+        imageDerivativeService.scheduleDerivatives(slug, savedPublicUrls);
 
-            try {
-                PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                        .bucket(supabaseBucketName)
-                        .key(objectKey)
-                        .contentType(file.getContentType())
-                        .build();
-
-
-                PutObjectResponse response = s3Client.putObject(putObjectRequest,
-                        RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
-
-                if (response != null && response.sdkHttpResponse().isSuccessful()) {
-                    String encodedKey = URLEncoder.encode(objectKey, StandardCharsets.UTF_8).replace("+", "%20");
-                    String publicUrl = supabaseApiUrl + "/object/public/" + supabaseBucketName + "/" + encodedKey;
-                    savedPublicUrls.add(publicUrl);
-                    log.info("Upload com sucesso para Supabase. URL pública: {}", publicUrl);
-                } else {
-                    log.error("Falha no upload para Supabase S3 para o arquivo {}. Resposta: {}", objectKey, response);
-                    throw new IOException("Falha no upload para Supabase S3 para o arquivo " + originalFilename);
-                }
+        return savedPublicUrls;
+    }
 
-            } catch (Exception e) {
-                log.error("Erro durante upload para Supabase S3 do arquivo '{}' para slug {}", objectKey, slug, e);
-                throw new IOException("Falha ao fazer upload do arquivo: " + originalFilename, e);
+    private void associateImages(String slug, List<String> publicUrls) {
+        transactionTemplate.executeWithoutResult(status -> {
+            MemoryPage page = memoryPageRepository.findBySlug(slug)
+                    .orElseThrow(() -> new IllegalArgumentException("Memory page not found with slug: " + slug));
+            if (page.getImageUrls().size() + publicUrls.size() > 7) {
+                throw new IllegalArgumentException("Limite de 7 imagens excedido.");
             }
-        }
+            page.getImageUrls().addAll(publicUrls);
+            markModified(page);
+            memoryPageRepository.save(page);
+            mediaIndex.updateReferences(List.of(), publicUrls);
+            memoryPageInvalidator.invalidateAfterCommit(page);
+        });
+    }
 
+    @Override
+    public DirectUploadResponse startDirectUpload(String slug, DirectUploadRequest request) throws IllegalArgumentException {
+        MediaKind kind = request.getKind();
+        if (!kind.accepts(request.getContentType())) {
+            log.warn("Tipo de arquivo inválido para upload direto. Slug: {}, Mídia: {}, Tipo: {}", slug, kind, request.getContentType());
+            throw new IllegalArgumentException("Formato de arquivo inválido para " + kind + ". Recebido: " + request.getContentType());
+        }
+        long maxBytes = maxDirectUploadBytes(kind);
+        if (request.getContentLength() > maxBytes) {
+            throw new IllegalArgumentException("Arquivo maior que o limite de " + maxBytes + " bytes.");
+        }
+        if (!memoryPageRepository.existsBySlug(slug)) {
+            log.warn("Tentativa de upload direto para slug não existente: {}", slug);
+            throw new IllegalArgumentException("Memory page not found with slug: " + slug);
+        }
+        return storageService.presignUpload(slug, kind, request.getFileName(), request.getContentType(), request.getContentLength());
+    }
 
-        existingImageUrls.addAll(savedPublicUrls);
-        memoryPage.setImageUrls(existingImageUrls);
-        memoryPage.setSynced(false);
-        memoryPageRepository.save(memoryPage);
-        log.info("URLs de imagem (Supabase) atualizadas para slug {}: {}", slug, savedPublicUrls);
+    /**
+     * Conclui um upload direto: confere o objeto no storage (HEAD) e associa a URL à página.
+     * Repetir a chamada para uma imagem já associada não a duplica.
+     */
+    @Override
+    public String completeDirectUpload(String slug, CompleteDirectUploadRequest request) throws IOException, IllegalArgumentException {
+        MediaKind kind = request.getKind();
+        requireKeyOfSlug(kind, slug, request.getObjectKey());
+        String publicUrl = storageService.verifyDirectUpload(kind, request.getObjectKey(), maxDirectUploadBytes(kind));
+
+        if (kind == MediaKind.MUSIC) {
+            associateMusic(slug, publicUrl);
+            log.info("URL de música atualizada para slug {}: {}", slug, publicUrl);
+            return publicUrl;
+        }
+        boolean alreadyAssociated = memoryPageRepository.findBySlug(slug)
+                .map(page -> page.getImageUrls().contains(publicUrl))
+                .orElse(false);
+        if (!alreadyAssociated) {
+            associateImages(slug, List.of(publicUrl));
+            imageDerivativeService.scheduleDerivatives(slug, List.of(publicUrl));
+            log.info("URL de imagem (upload direto) adicionada ao slug {}: {}", slug, publicUrl);
+        }
+        return publicUrl;
+    }
 
-        return savedPublicUrls;
+    private long maxDirectUploadBytes(MediaKind kind) {
+        return (kind == MediaKind.MUSIC ? maxDirectMusicSize : maxDirectImageSize).toBytes();
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public byte[] generateQrCodeForSlug(String slug) throws IOException, IllegalArgumentException {
-        if (!memoryPageRepository.findBySlug(slug).isPresent()) {
+    public QrCodeImage generateQrCodeForSlug(String slug, int size, QrCodeFormat format) throws IOException, IllegalArgumentException {
+        QrCodeRenderer.validateSize(size);
+        if (!memoryPageRepository.existsBySlug(slug)) {
             log.warn("Tentativa de gerar QR Code para slug não existente: {}", slug);
             throw new IllegalArgumentException("Memory page not found with slug: " + slug);
         }
+        return qrCodeRenderer.render(slug, pageUrlFor(slug), size, format);
+    }
 
+    @Override
+    public String getQrCodeETag(String slug, int size, QrCodeFormat format) throws IllegalArgumentException {
+        return qrCodeRenderer.etag(pageUrlFor(slug), size, format);
+    }
 
-        String pageUrl = appBaseUrl + "/m/" + slug;
-        log.info("Gerando QR Code para a URL: {}", pageUrl);
-
-        try (ByteArrayOutputStream stream = QRCode.from(pageUrl)
-                .to(ImageType.PNG)
-                .withSize(250, 250)
-                .stream()) {
-            return stream.toByteArray();
-        } catch (Exception e) {
-            log.error("Erro ao gerar stream de bytes do QR Code para URL: {}", pageUrl, e);
-            throw new IOException("Erro ao gerar imagem QR Code", e);
-        }
+    private String pageUrlFor(String slug) {
+        return appBaseUrl + "/m/" + slug;
     }
+
+    // Como nas imagens, o upload acontece fora de transação; só a troca da URL é transacional.
     @Override
-    @Transactional
     public String uploadAndAssociateMusic(String slug, MultipartFile musicFile) throws IOException, IllegalArgumentException {
         if (musicFile == null || musicFile.isEmpty()) {
             throw new IllegalArgumentException("Arquivo de música não enviado ou vazio.");
@@ -310,53 +605,90 @@ public class MemoryPageServiceImpl implements MemoryPageService {
             throw new IllegalArgumentException("Formato de arquivo de música inválido. Recebido: " + contentType);
         }
 
-        MemoryPage memoryPage = memoryPageRepository.findBySlug(slug)
-                .orElseThrow(() -> {
-                    log.warn("Tentativa de upload de música para slug não existente: {}", slug);
-                    return new IllegalArgumentException("Memory page not found with slug: " + slug);
-                });
-
-        String originalFilename = musicFile.getOriginalFilename();
-        String extension = "";
-        if (originalFilename != null && originalFilename.contains(".")) {
-            extension = originalFilename.substring(originalFilename.lastIndexOf("."));
+        if (!memoryPageRepository.existsBySlug(slug)) {
+            log.warn("Tentativa de upload de música para slug não existente: {}", slug);
+            throw new IllegalArgumentException("Memory page not found with slug: " + slug);
         }
-        String objectKey = "music/" + slug + "_" + Instant.now().toEpochMilli() + "_" + UUID.randomUUID().toString().substring(0, 6) + extension;
-
-        log.info("Fazendo upload de música para Supabase Storage. Bucket: '{}', Key: '{}'", supabaseBucketName, objectKey);
 
+        String publicUrl = storageService.uploadMusic(slug, musicFile);
+        associateMusic(slug, publicUrl);
+        log.info("URL de música atualizada para slug {}: {}", slug, publicUrl);
+        return publicUrl;
+    }
 
-        try {
-            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
-                    .bucket(supabaseBucketName)
-                    .key(objectKey)
-                    .contentType(contentType)
-                    .build();
+    private void associateMusic(String slug, String publicUrl) {
+        transactionTemplate.executeWithoutResult(status -> {
+            MemoryPage memoryPage = memoryPageRepository.findBySlug(slug)
+                    .orElseThrow(() -> new IllegalArgumentException("Memory page not found with slug: " + slug));
+            List<String> previousMusicUrl = memoryPage.getMusicUrl() != null ? List.of(memoryPage.getMusicUrl()) : List.of();
+            Set<String> previousStoredUrls = storedUrlsOf(memoryPage);
+            memoryPage.setMusicUrl(publicUrl);
+            markModified(memoryPage);
+            memoryPageRepository.save(memoryPage);
+            mediaIndex.updateReferences(previousMusicUrl, List.of(publicUrl));
+            releaseStoredUrls(previousStoredUrls, memoryPage);
+            memoryPageInvalidator.invalidateAfterCommit(memoryPage);
+        });
+    }
 
-            PutObjectResponse response = s3Client.putObject(putObjectRequest,
-                    RequestBody.fromInputStream(musicFile.getInputStream(), musicFile.getSize()));
+    @Override
+    public MusicUploadResponse startMusicUpload(String slug, StartMusicUploadRequest request) throws IllegalArgumentException {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.startsWith("audio/")) {
+            log.warn("Tentativa de upload de arquivo não-áudio para música. Slug: {}, Tipo: {}", slug, contentType);
+            throw new IllegalArgumentException("Formato de arquivo de música inválido. Recebido: " + contentType);
+        }
+        if (!memoryPageRepository.existsBySlug(slug)) {
+            log.warn("Tentativa de upload de música para slug não existente: {}", slug);
+            throw new IllegalArgumentException("Memory page not found with slug: " + slug);
+        }
+        return storageService.startMusicUpload(slug, request.getFileName(), contentType);
+    }
 
-            if (response != null && response.sdkHttpResponse().isSuccessful()) {
-                String encodedKey = URLEncoder.encode(objectKey, StandardCharsets.UTF_8).replace("+", "%20");
-                String publicUrl = supabaseApiUrl + "/storage/v1/object/public/" + supabaseBucketName + "/" + encodedKey;
-                log.info("Upload de música com sucesso para Supabase. URL pública: {}", publicUrl);
+    @Override
+    public UploadedPartResponse uploadMusicPart(String slug, String uploadId, String objectKey, int partNumber, InputStream content) throws IOException, IllegalArgumentException {
+        requireMusicUploadOfPage(slug, uploadId, objectKey);
+        return storageService.uploadMusicPart(objectKey, uploadId, partNumber, content);
+    }
 
+    @Override
+    public MusicUploadResponse getMusicUpload(String slug, String uploadId, String objectKey) throws IllegalArgumentException {
+        requireMusicUploadOfPage(slug, uploadId, objectKey);
+        List<UploadedPartResponse> parts = storageService.listMusicParts(objectKey, uploadId);
+        return new MusicUploadResponse(uploadId, objectKey, partBufferPool.partSize(), parts);
+    }
 
-                memoryPage.setMusicUrl(publicUrl);
-                memoryPage.setSynced(false);
-                memoryPageRepository.save(memoryPage);
-                log.info("URL de música atualizada para slug {}: {}", slug, publicUrl);
+    @Override
+    public String completeMusicUpload(String slug, String uploadId, String objectKey) throws IOException, IllegalArgumentException {
+        requireMusicUploadOfPage(slug, uploadId, objectKey);
+        String publicUrl = storageService.completeMusicUpload(objectKey, uploadId);
+        associateMusic(slug, publicUrl);
+        log.info("URL de música atualizada para slug {}: {}", slug, publicUrl);
+        return publicUrl;
+    }
 
+    @Override
+    public void abortMusicUpload(String slug, String uploadId, String objectKey) throws IllegalArgumentException {
+        requireMusicUploadOfPage(slug, uploadId, objectKey);
+        storageService.abortMusicUpload(objectKey, uploadId);
+    }
 
-                return publicUrl;
-            } else {
-                log.error("Falha no upload de música para Supabase S3. Key: {}. Resposta: {}", objectKey, response);
-                throw new IOException("Falha no upload de música para Supabase S3.");
-            }
+    // A chave precisa ser de música do slug, a página precisa existir e o uploadId precisa ser dessa chave;
+    // sem isso qualquer um poderia enviar partes ou cancelar o upload de outra página conhecendo o uploadId.
+    private void requireMusicUploadOfPage(String slug, String uploadId, String objectKey) {
+        requireKeyOfSlug(MediaKind.MUSIC, slug, objectKey);
+        if (!memoryPageRepository.existsBySlug(slug)) {
+            throw new IllegalArgumentException("Memory page not found with slug: " + slug);
+        }
+        if (!storageService.musicUploadExists(objectKey, uploadId)) {
+            throw new IllegalArgumentException("Upload " + uploadId + " não encontrado para o slug: " + slug);
+        }
+    }
 
-        } catch (Exception e) {
-            log.error("Erro durante upload de música para Supabase S3. Key: {}, Slug: {}", objectKey, slug, e);
-            throw new IOException("Falha ao fazer upload do arquivo de música: " + originalFilename, e);
+    private static void requireKeyOfSlug(MediaKind kind, String slug, String objectKey) {
+        String prefix = kind.getKeyPrefix() + slug + "_";
+        if (objectKey == null || !objectKey.startsWith(prefix) || objectKey.indexOf('/', prefix.length()) >= 0) {
+            throw new IllegalArgumentException("Chave de upload não pertence ao slug: " + slug);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,15 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+
+import java.util.List;
+
+/**
+ * Destino das páginas alteradas (snapshot estático, índice de busca...), alimentado pelo {@link MemoryPageSyncWorker}.
+ * Uma exceção faz o lote inteiro ser tentado de novo na próxima execução, então a implementação deve ser idempotente.
+ */
+public interface MemoryPageSyncSink {
+
+    void sync(List<MemoryPage> pages);
+
+}
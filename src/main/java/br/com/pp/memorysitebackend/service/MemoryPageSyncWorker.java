@@ -0,0 +1,116 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.SyncBacklog;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processa as páginas com {@code isSynced = false} em lotes, no estilo outbox: cada lote é reivindicado com
+ * {@code FOR UPDATE SKIP LOCKED}, entregue aos {@link MemoryPageSyncSink} e marcado como sincronizado na mesma
+ * transação. Várias instâncias podem rodar o worker ao mesmo tempo sem processar a mesma página duas vezes.
+ */
+@Component
+public class MemoryPageSyncWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(MemoryPageSyncWorker.class);
+
+    private final MemoryPageRepository memoryPageRepository;
+    private final List<MemoryPageSyncSink> sinks;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    private final Counter syncedCounter;
+    private final Counter failureCounter;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public MemoryPageSyncWorker(MemoryPageRepository memoryPageRepository,
+                                List<MemoryPageSyncSink> sinks,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${app.sync.batch-size:100}") int batchSize,
+                                @Value("${app.sync.max-batches-per-run:10}") int maxBatchesPerRun) {
+        this.memoryPageRepository = memoryPageRepository;
+        this.sinks = sinks;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.syncedCounter = Counter.builder("memory.sync.pages")
+                .description("Páginas entregues aos sinks e marcadas como sincronizadas")
+                .register(meterRegistry);
+        this.failureCounter = Counter.builder("memory.sync.failures")
+                .description("Lotes que falharam e serão tentados de novo")
+                .register(meterRegistry);
+        Gauge.builder("memory.sync.backlog", backlog, AtomicLong::get)
+                .description("Páginas aguardando sincronização")
+                .register(meterRegistry);
+        Gauge.builder("memory.sync.lag", lagSeconds, AtomicLong::get)
+                .description("Idade, em segundos, da alteração pendente mais antiga")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${app.sync.interval-ms:10000}")
+    public void run() {
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            int processed;
+            try {
+                processed = processBatch();
+            } catch (RuntimeException e) {
+                failureCounter.increment();
+                log.error("Falha ao sincronizar lote de páginas. Será tentado de novo na próxima execução.", e);
+                break;
+            }
+            if (processed < batchSize) {
+                break;
+            }
+        }
+        refreshBacklog();
+    }
+
+    private int processBatch() {
+        Integer processed = transactionTemplate.execute(status -> {
+            List<MemoryPage> pages = memoryPageRepository.claimUnsynced(batchSize);
+            if (pages.isEmpty()) {
+                return 0;
+            }
+            for (MemoryPageSyncSink sink : sinks) {
+                sink.sync(pages);
+            }
+            memoryPageRepository.markSynced(pages.stream().map(MemoryPage::getId).toList());
+            return pages.size();
+        });
+        int count = processed != null ? processed : 0;
+        if (count > 0) {
+            syncedCounter.increment(count);
+            log.info("{} páginas sincronizadas", count);
+        }
+        return count;
+    }
+
+    private void refreshBacklog() {
+        try {
+            SyncBacklog current = memoryPageRepository.findSyncBacklog();
+            backlog.set(current.getPending());
+            LocalDateTime oldest = current.getOldestModifiedDate();
+            lagSeconds.set(oldest != null ? Math.max(0, Duration.between(oldest, LocalDateTime.now()).toSeconds()) : 0);
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível consultar o backlog de sincronização", e);
+        }
+    }
+}
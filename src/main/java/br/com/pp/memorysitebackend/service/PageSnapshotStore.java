@@ -0,0 +1,246 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cópias em disco do JSON de {@link MemoryPageResponse} (puro e já em gzip), servidas direto do arquivo sem
+ * passar por JPA nem Jackson. Um snapshot só é servido para a versão atual da página e enquanto tiver menos de
+ * {@code max-age}, o que limita o atraso do {@code viewCount} embutido nele. Páginas "assentadas" (data alvo
+ * passada e sem edição há {@code min-age}) têm o snapshot regravado quando a leitura cai no caminho normal.
+ * Cada gravação usa arquivos novos; os substituídos são apagados quando saem do índice. Cada instância grava num
+ * subdiretório próprio de {@code app.snapshot.dir}, então processos que compartilham o diretório não apagam nem
+ * substituem os arquivos uns dos outros.
+ */
+@Component
+public class PageSnapshotStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PageSnapshotStore.class);
+
+    private static final Pattern SAFE_SLUG = Pattern.compile("[a-z0-9-]{1,100}");
+
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final Path directory;
+    private final Duration maxAge;
+    private final Duration minAge;
+    private final Clock clock;
+    private final Cache<String, Snapshot> snapshots;
+    private final AtomicLong fileSequence = new AtomicLong();
+    // Slugs com regravação em andamento: leituras simultâneas da mesma página não gravam todas o mesmo snapshot.
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final Counter servedCounter;
+    private final Counter servedGzipCounter;
+
+    @Autowired
+    public PageSnapshotStore(ObjectMapper objectMapper,
+                             MeterRegistry meterRegistry,
+                             @Value("${app.snapshot.enabled:true}") boolean enabled,
+                             @Value("${app.snapshot.dir:${java.io.tmpdir}/memory-page-snapshots}") Path directory,
+                             @Value("${app.snapshot.max-entries:10000}") long maxEntries,
+                             @Value("${app.snapshot.max-age:1m}") Duration maxAge,
+                             @Value("${app.snapshot.min-age:1h}") Duration minAge) throws IOException {
+        this(objectMapper, meterRegistry, enabled, directory, maxEntries, maxAge, minAge, Clock.systemDefaultZone());
+    }
+
+    PageSnapshotStore(ObjectMapper objectMapper, MeterRegistry meterRegistry, boolean enabled, Path directory,
+                      long maxEntries, Duration maxAge, Duration minAge, Clock clock) throws IOException {
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.minAge = minAge;
+        this.clock = clock;
+        this.snapshots = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .removalListener((String slug, Snapshot snapshot, RemovalCause cause) -> {
+                    if (snapshot != null) {
+                        snapshot.delete();
+                    }
+                })
+                .build();
+        this.servedCounter = Counter.builder("memory.snapshot.served").tag("encoding", "identity")
+                .description("Páginas servidas de snapshots em disco").register(meterRegistry);
+        this.servedGzipCounter = Counter.builder("memory.snapshot.served").tag("encoding", "gzip")
+                .description("Páginas servidas de snapshots em disco").register(meterRegistry);
+        if (enabled) {
+            // O índice é só de memória: cada execução começa num subdiretório vazio, apagado no desligamento.
+            Files.createDirectories(directory);
+            this.directory = Files.createTempDirectory(directory, "instance-");
+        } else {
+            this.directory = directory;
+        }
+        log.info("Snapshots de páginas {}. Diretório: {}, max-age: {}, min-age: {}",
+                enabled ? "habilitados" : "desabilitados", this.directory, maxAge, minAge);
+    }
+
+    /**
+     * Abre o snapshot da página se ele for da versão informada e ainda estiver fresco. Quem chama fecha o canal.
+     */
+    public Optional<FileChannel> open(String slug, long version, boolean gzip) {
+        Snapshot snapshot = snapshots.getIfPresent(slug);
+        if (snapshot == null || snapshot.version != version || isExpired(snapshot)) {
+            return Optional.empty();
+        }
+        try {
+            FileChannel channel = FileChannel.open(gzip ? snapshot.gzipFile : snapshot.jsonFile);
+            (gzip ? servedGzipCounter : servedCounter).increment();
+            return Optional.of(channel);
+        } catch (NoSuchFileException e) {
+            // Substituído entre a consulta ao índice e a abertura; quem chama segue pelo caminho normal.
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn("Falha ao abrir snapshot da página {}", slug, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Grava o snapshot depois do commit da transação atual (ou já, fora de transação). O {@code page} é
+     * obtido só no commit, quando a versão da entidade já foi incrementada.
+     */
+    public void writeAfterCommit(Supplier<MemoryPageResponse> page) {
+        if (!enabled) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    write(page.get());
+                }
+            });
+        } else {
+            write(page.get());
+        }
+    }
+
+    /**
+     * Regrava o snapshot de uma página assentada que acabou de ser lida pelo caminho normal, se ele não existir,
+     * for de outra versão ou tiver expirado.
+     */
+    public void refreshIfSettled(MemoryPageResponse page) {
+        if (!enabled || !isSettled(page)) {
+            return;
+        }
+        Snapshot snapshot = snapshots.getIfPresent(page.getSlug());
+        if ((snapshot == null || snapshot.version != page.getVersion() || isExpired(snapshot))
+                && refreshing.add(page.getSlug())) {
+            try {
+                write(page);
+            } finally {
+                refreshing.remove(page.getSlug());
+            }
+        }
+    }
+
+    public void evict(String slug) {
+        snapshots.invalidate(slug);
+    }
+
+    @PreDestroy
+    public void deleteOnShutdown() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        snapshots.invalidateAll();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(PageSnapshotStore::deleteQuietly);
+        }
+        deleteQuietly(directory);
+    }
+
+    private void write(MemoryPageResponse page) {
+        if (!SAFE_SLUG.matcher(page.getSlug()).matches()) {
+            return;
+        }
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(page);
+            String prefix = page.getSlug() + "." + page.getVersion() + "." + fileSequence.incrementAndGet();
+            Path jsonFile = writeAtomically(prefix + ".json.snapshot", json);
+            Path gzipFile = writeAtomically(prefix + ".json.gz.snapshot", gzip(json));
+            snapshots.put(page.getSlug(), new Snapshot(page.getVersion(), jsonFile, gzipFile, clock.instant()));
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Falha ao gravar snapshot da página {}", page.getSlug(), e);
+        }
+    }
+
+    private Path writeAtomically(String fileName, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(directory, fileName, ".tmp");
+        try {
+            Files.write(temporary, content);
+            return Files.move(temporary, directory.resolve(fileName), StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            deleteQuietly(temporary);
+            throw e;
+        }
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(content);
+        }
+        return compressed.toByteArray();
+    }
+
+    private boolean isExpired(Snapshot snapshot) {
+        return snapshot.writtenAt.plus(maxAge).isBefore(clock.instant());
+    }
+
+    private boolean isSettled(MemoryPageResponse page) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return (page.getTargetDate() == null || page.getTargetDate().isBefore(now))
+                && page.getLastModifiedDate() != null
+                && page.getLastModifiedDate().plus(minAge).isBefore(now);
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Falha ao apagar snapshot {}", file, e);
+        }
+    }
+
+    private record Snapshot(long version, Path jsonFile, Path gzipFile, Instant writtenAt) {
+
+        private void delete() {
+            deleteQuietly(jsonFile);
+            deleteQuietly(gzipFile);
+        }
+    }
+}
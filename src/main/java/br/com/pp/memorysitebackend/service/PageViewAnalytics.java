@@ -0,0 +1,177 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.PageViewBucket;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Agrega as visualizações por página e por hora em memória: um contador e um {@link HyperLogLog} com o hash do
+ * visitante. Periodicamente os agregados vão para page_view_stats, somados ao que já existe no banco; assim
+ * várias instâncias gravam a mesma hora sem se sobrescrever e cada GET não vira uma linha no banco.
+ * O identificador do visitante nunca é guardado, só os registradores do sketch.
+ */
+@Component
+public class PageViewAnalytics {
+
+    private static final Logger log = LoggerFactory.getLogger(PageViewAnalytics.class);
+
+    private final MemoryPageRepository memoryPageRepository;
+    private final Duration retention;
+    private final Clock clock;
+
+    private final ConcurrentHashMap<BucketKey, Aggregate> pending = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    @Autowired
+    public PageViewAnalytics(MemoryPageRepository memoryPageRepository,
+                             @Value("${app.analytics.retention:400d}") Duration retention) {
+        this(memoryPageRepository, retention, Clock.systemUTC());
+    }
+
+    PageViewAnalytics(MemoryPageRepository memoryPageRepository, Duration retention, Clock clock) {
+        this.memoryPageRepository = memoryPageRepository;
+        this.retention = retention;
+        this.clock = clock;
+    }
+
+    public void record(String slug, String visitorId) {
+        long visitorHash = hash(visitorId);
+        BucketKey key = new BucketKey(slug, clock.instant().truncatedTo(ChronoUnit.HOURS));
+        while (true) {
+            Aggregate aggregate = pending.computeIfAbsent(key, k -> new Aggregate());
+            synchronized (aggregate) {
+                // Um agregado já retirado pelo flush não aceita mais visualizações; cria-se outro para a mesma hora.
+                if (!aggregate.flushed) {
+                    aggregate.views++;
+                    aggregate.visitors.add(visitorHash);
+                    return;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.flush-interval-ms:60000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            List<PageViewBucket> buckets = drain();
+            if (buckets.isEmpty()) {
+                return;
+            }
+            try {
+                memoryPageRepository.mergeViewStats(buckets);
+            } catch (RuntimeException e) {
+                log.error("Falha ao gravar estatísticas de visualização ({} intervalos). Mantendo para a próxima tentativa.", buckets.size(), e);
+                buckets.forEach(this::restore);
+                return;
+            }
+            log.debug("Estatísticas de visualização gravadas: {} intervalos", buckets.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Estatísticas da página por dia no fuso informado, a partir de {@code from}, em ordem cronológica. As horas
+     * gravadas são unidas aqui, e não no banco, onde cada hora custaria um hll_merge de 2048 registradores.
+     */
+    public List<PageViewBucket> findDailyViewStats(String slug, Instant from, ZoneId zone) {
+        Map<LocalDate, Aggregate> days = new TreeMap<>();
+        for (PageViewBucket hour : memoryPageRepository.findHourlyViewStats(slug, from)) {
+            Aggregate day = days.computeIfAbsent(hour.getBucketStart().atZone(zone).toLocalDate(), d -> new Aggregate());
+            day.views += hour.getViews();
+            day.visitors.merge(HyperLogLog.wrap(hour.getVisitorsSketch()));
+        }
+        List<PageViewBucket> daily = new ArrayList<>(days.size());
+        days.forEach((day, aggregate) -> daily.add(new PageViewBucket(slug, day.atStartOfDay(zone).toInstant(),
+                aggregate.views, aggregate.visitors.toByteArray())));
+        return daily;
+    }
+
+    @Scheduled(fixedDelayString = "${app.analytics.purge-interval-ms:3600000}", initialDelayString = "${app.analytics.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        int deleted = memoryPageRepository.deleteViewStatsBefore(clock.instant().minus(retention));
+        if (deleted > 0) {
+            log.info("{} intervalos de estatísticas de visualização mais antigos que {} removidos", deleted, retention);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Gravando estatísticas de visualização pendentes antes do desligamento");
+        flush();
+    }
+
+    private List<PageViewBucket> drain() {
+        List<PageViewBucket> buckets = new ArrayList<>(pending.size());
+        for (BucketKey key : pending.keySet()) {
+            Aggregate aggregate = pending.remove(key);
+            if (aggregate == null) {
+                continue;
+            }
+            synchronized (aggregate) {
+                aggregate.flushed = true;
+            }
+            buckets.add(new PageViewBucket(key.slug(), key.hour(), aggregate.views, aggregate.visitors.toByteArray()));
+        }
+        return buckets;
+    }
+
+    private void restore(PageViewBucket bucket) {
+        BucketKey key = new BucketKey(bucket.getSlug(), bucket.getBucketStart());
+        HyperLogLog visitors = HyperLogLog.wrap(bucket.getVisitorsSketch());
+        while (true) {
+            Aggregate aggregate = pending.computeIfAbsent(key, k -> new Aggregate());
+            synchronized (aggregate) {
+                if (!aggregate.flushed) {
+                    aggregate.views += bucket.getViews();
+                    aggregate.visitors.merge(visitors);
+                    return;
+                }
+            }
+        }
+    }
+
+    // Primeiros 64 bits do SHA-256: o HyperLogLog depende de hashes bem distribuídos.
+    private static long hash(String visitorId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(visitorId.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(digest).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível", e);
+        }
+    }
+
+    private record BucketKey(String slug, Instant hour) {
+    }
+
+    private static final class Aggregate {
+
+        private final HyperLogLog visitors = new HyperLogLog();
+        private long views;
+        private boolean flushed;
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.pp.memorysitebackend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool fixo de buffers do tamanho de uma parte de upload multipart. Limita a memória usada por
+ * uploads em partes a {@code max-buffers * part-size}, sem alocar um buffer novo por requisição.
+ */
+@Component
+public class PartBufferPool {
+
+    private static final long ACQUIRE_TIMEOUT_SECONDS = 30;
+
+    private final int partSize;
+    private final BlockingQueue<byte[]> buffers;
+
+    public PartBufferPool(@Value("${app.storage.multipart.part-size:8MB}") DataSize partSize,
+                          @Value("${app.storage.multipart.max-buffers:8}") int maxBuffers) {
+        this.partSize = Math.toIntExact(partSize.toBytes());
+        this.buffers = new ArrayBlockingQueue<>(maxBuffers);
+        for (int i = 0; i < maxBuffers; i++) {
+            buffers.add(new byte[this.partSize]);
+        }
+    }
+
+    public int partSize() {
+        return partSize;
+    }
+
+    public byte[] acquire() throws IOException {
+        try {
+            byte[] buffer = buffers.poll(ACQUIRE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            if (buffer == null) {
+                throw new IOException("Nenhum buffer de upload disponível. Tente novamente.");
+            }
+            return buffer;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando buffer de upload", e);
+        }
+    }
+
+    public void release(byte[] buffer) {
+        buffers.offer(buffer);
+    }
+}
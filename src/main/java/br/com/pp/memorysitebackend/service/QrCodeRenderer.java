@@ -0,0 +1,159 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.QrCodeFormat;
+import br.com.pp.memorysitebackend.dto.QrCodeImage;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.QRCodeWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import net.glxn.qrgen.core.image.ImageType;
+import net.glxn.qrgen.javase.QRCode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Renderiza QR Codes e mantém as imagens em um cache LRU limitado pelo total de bytes.
+ * A imagem é determinística para (URL, tamanho, formato), então o ETag é calculado
+ * a partir desses valores, sem precisar renderizar.
+ */
+@Component
+public class QrCodeRenderer implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(QrCodeRenderer.class);
+
+    public static final int MIN_SIZE = 100;
+    public static final int MAX_SIZE = 1000;
+    // Altere ao mudar a forma de renderizar, para invalidar os ETags já entregues.
+    private static final String RENDERER_VERSION = "1";
+    private static final int QUIET_ZONE_MODULES = 4;
+
+    private final Cache<QrCodeKey, QrCodeImage> cache;
+    private final Timer pngRenderTimer;
+    private final Timer svgRenderTimer;
+
+    public QrCodeRenderer(@Value("${app.qrcode.cache.max-bytes:16MB}") DataSize maxBytes, MeterRegistry meterRegistry) {
+        this.pngRenderTimer = renderTimer(meterRegistry, QrCodeFormat.PNG);
+        this.svgRenderTimer = renderTimer(meterRegistry, QrCodeFormat.SVG);
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes.toBytes())
+                .weigher((QrCodeKey key, QrCodeImage image) -> image.getContent().length)
+                .recordStats()
+                .build();
+    }
+
+    public QrCodeImage render(String slug, String pageUrl, int size, QrCodeFormat format) throws IOException {
+        QrCodeKey key = new QrCodeKey(slug, pageUrl, size, format);
+        try {
+            return cache.get(key, this::renderUncached);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public String etag(String pageUrl, int size, QrCodeFormat format) {
+        validateSize(size);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest((RENDERER_VERSION + "|" + pageUrl + "|" + size + "|" + format).getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void evict(String slug) {
+        cache.asMap().keySet().removeIf(key -> key.slug().equals(slug));
+    }
+
+    public static void validateSize(int size) {
+        if (size < MIN_SIZE || size > MAX_SIZE) {
+            throw new IllegalArgumentException("Tamanho do QR Code deve estar entre " + MIN_SIZE + " e " + MAX_SIZE + ".");
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "qrCodes");
+    }
+
+    private QrCodeImage renderUncached(QrCodeKey key) {
+        log.info("Gerando QR Code {} {}x{} para a URL: {}", key.format(), key.size(), key.size(), key.pageUrl());
+        byte[] content;
+        try {
+            content = key.format() == QrCodeFormat.SVG
+                    ? svgRenderTimer.recordCallable(() -> renderSvg(key.pageUrl(), key.size()))
+                    : pngRenderTimer.recordCallable(() -> renderPng(key.pageUrl(), key.size()));
+        } catch (Exception e) {
+            log.error("Erro ao gerar stream de bytes do QR Code para URL: {}", key.pageUrl(), e);
+            throw new UncheckedIOException(new IOException("Erro ao gerar imagem QR Code", e));
+        }
+        return new QrCodeImage(content, key.format(), etag(key.pageUrl(), key.size(), key.format()));
+    }
+
+    private static Timer renderTimer(MeterRegistry meterRegistry, QrCodeFormat format) {
+        return Timer.builder("qrcode.render")
+                .description("Renderização de QR Code sem cache")
+                .tag("format", format.name().toLowerCase())
+                .register(meterRegistry);
+    }
+
+    static byte[] renderPng(String pageUrl, int size) throws IOException {
+        try (ByteArrayOutputStream stream = QRCode.from(pageUrl)
+                .to(ImageType.PNG)
+                .withSize(size, size)
+                .stream()) {
+            return stream.toByteArray();
+        }
+    }
+
+    // Um retângulo por sequência de módulos escuros em cada linha, com viewBox em módulos.
+    static byte[] renderSvg(String pageUrl, int size) throws WriterException {
+        BitMatrix matrix = new QRCodeWriter().encode(pageUrl, BarcodeFormat.QR_CODE, 0, 0,
+                Map.of(EncodeHintType.MARGIN, QUIET_ZONE_MODULES));
+        int width = matrix.getWidth();
+        int height = matrix.getHeight();
+        StringBuilder path = new StringBuilder();
+        for (int y = 0; y < height; y++) {
+            int x = 0;
+            while (x < width) {
+                if (!matrix.get(x, y)) {
+                    x++;
+                    continue;
+                }
+                int runStart = x;
+                while (x < width && matrix.get(x, y)) {
+                    x++;
+                }
+                path.append('M').append(runStart).append(' ').append(y)
+                        .append('h').append(x - runStart).append("v1h-").append(x - runStart).append('z');
+            }
+        }
+        String svg = "<svg xmlns=\"http://www.w3.org/2000/svg\" width=\"" + size + "\" height=\"" + size
+                + "\" viewBox=\"0 0 " + width + " " + height + "\" shape-rendering=\"crispEdges\">"
+                + "<rect width=\"100%\" height=\"100%\" fill=\"#fff\"/>"
+                + "<path fill=\"#000\" d=\"" + path + "\"/></svg>";
+        return svg.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record QrCodeKey(String slug, String pageUrl, int size, QrCodeFormat format) {
+    }
+}
@@ -0,0 +1,168 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Gera slugs únicos buscando, em uma única consulta por prefixo, os slugs já usados
+ * para a base ({@code base} e {@code base-N}) e escolhendo o primeiro sufixo livre.
+ */
+@Component
+public class SlugAllocator {
+
+    private static final Logger log = LoggerFactory.getLogger(SlugAllocator.class);
+
+    private static final Pattern COMBINING_DIACRITICAL_MARKS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+    private static final Pattern NON_ALPHANUMERIC_OR_HYPHEN = Pattern.compile("[^a-z0-9-]");
+    private static final Pattern HYPHEN_DUPLICATES = Pattern.compile("-{2,}");
+    private static final Pattern LEADING_OR_TRAILING_HYPHEN = Pattern.compile("^-|-$");
+
+    static final int MAX_SLUG_LENGTH = 50;
+    // Caminhos fixos em GET /api/memory/{slug}; uma página com esse slug ficaria inacessível.
+    static final Set<String> RESERVED_SLUGS = Set.of("trending");
+    // Espaço reservado para o sufixo "-N" (até "-9999").
+    private static final int SUFFIX_RESERVE = 5;
+
+    private final MemoryPageRepository memoryPageRepository;
+    private final Counter collisionCounter;
+    private final Counter constraintRetryCounter;
+    private final Timer allocationTimer;
+    private final DistributionSummary attemptsSummary;
+
+    public SlugAllocator(MemoryPageRepository memoryPageRepository, MeterRegistry meterRegistry) {
+        this.memoryPageRepository = memoryPageRepository;
+        this.collisionCounter = Counter.builder("memory.slug.collisions")
+                .description("Slugs base já ocupados que exigiram sufixo")
+                .tag("stage", "allocation")
+                .register(meterRegistry);
+        this.constraintRetryCounter = Counter.builder("memory.slug.collisions")
+                .description("Slugs base já ocupados que exigiram sufixo")
+                .tag("stage", "unique-constraint")
+                .register(meterRegistry);
+        this.allocationTimer = Timer.builder("memory.slug.allocation")
+                .description("Tempo para escolher um slug livre, incluindo a consulta por prefixo")
+                .register(meterRegistry);
+        this.attemptsSummary = DistributionSummary.builder("memory.slug.allocation.attempts")
+                .description("Tentativas de INSERT até a página ser criada com um slug único")
+                .register(meterRegistry);
+    }
+
+    public String generateUniqueSlug(String baseSuggestion) {
+        return allocationTimer.record(() -> allocate(baseSuggestion));
+    }
+
+    /**
+     * Registra quantas tentativas a criação de uma página precisou (1 quando não houve colisão no INSERT).
+     */
+    public void recordAttempts(int attempts) {
+        attemptsSummary.record(attempts);
+    }
+
+    /**
+     * Escolhe slugs únicos para várias páginas com uma única consulta ao banco. Slugs repetidos dentro
+     * do próprio lote também recebem sufixos distintos. A ordem do resultado é a de {@code baseSuggestions}.
+     */
+    public List<String> generateUniqueSlugs(List<String> baseSuggestions) {
+        return allocationTimer.record(() -> {
+            List<String> bases = baseSuggestions.stream().map(SlugAllocator.this::normalizeBase).toList();
+            Set<String> distinctBases = new LinkedHashSet<>(bases);
+            Set<String> takenSlugs = new HashSet<>(memoryPageRepository.findSlugsMatchingAnyBase(
+                    distinctBases.toArray(String[]::new),
+                    distinctBases.stream().map(base -> suffixBase(base) + "-%").toArray(String[]::new)));
+            Map<String, SlugCandidates> candidatesByBase = new HashMap<>();
+            List<String> slugs = new ArrayList<>(bases.size());
+            for (int i = 0; i < bases.size(); i++) {
+                String slug = candidatesByBase.computeIfAbsent(bases.get(i), SlugCandidates::new)
+                        .next(baseSuggestions.get(i), takenSlugs);
+                takenSlugs.add(slug);
+                slugs.add(slug);
+            }
+            return slugs;
+        });
+    }
+
+    private String allocate(String baseSuggestion) {
+        String base = normalizeBase(baseSuggestion);
+        Set<String> takenSlugs = new HashSet<>(memoryPageRepository.findSlugsMatchingBase(base, suffixBase(base) + "-%"));
+        return new SlugCandidates(base).next(baseSuggestion, takenSlugs);
+    }
+
+    private String normalizeBase(String baseSuggestion) {
+        String base = sanitizeSlug(baseSuggestion);
+        if (base.isEmpty()) {
+            base = UUID.randomUUID().toString().substring(0, 8);
+        }
+        return base.substring(0, Math.min(base.length(), MAX_SLUG_LENGTH));
+    }
+
+    private static String suffixBase(String base) {
+        return base.substring(0, Math.min(base.length(), MAX_SLUG_LENGTH - SUFFIX_RESERVE));
+    }
+
+    /**
+     * Registra que o INSERT falhou na constraint única de slug (criação concorrente) e será repetido.
+     */
+    public void recordConstraintCollision() {
+        constraintRetryCounter.increment();
+    }
+
+    public String sanitizeSlug(String input) {
+        if (input == null || input.isBlank()) { return ""; }
+        String normalized = Normalizer.normalize(input, Normalizer.Form.NFD);
+        String withoutAccents = COMBINING_DIACRITICAL_MARKS.matcher(normalized).replaceAll("");
+        String lowerCase = withoutAccents.toLowerCase();
+        String replaced = NON_ALPHANUMERIC_OR_HYPHEN.matcher(lowerCase).replaceAll("-");
+        String collapsedHyphens = HYPHEN_DUPLICATES.matcher(replaced).replaceAll("-");
+        return LEADING_OR_TRAILING_HYPHEN.matcher(collapsedHyphens).replaceAll("");
+    }
+
+    /**
+     * Candidatos de uma base, na ordem {@code base}, {@code base-1}, {@code base-2}... O próximo sufixo
+     * testado é lembrado, então alocar N slugs com a mesma base não volta a testar os anteriores.
+     */
+    private final class SlugCandidates {
+
+        private final String base;
+        private final String suffixPrefix;
+        private int nextSuffix = 1;
+
+        private SlugCandidates(String base) {
+            this.base = base;
+            this.suffixPrefix = suffixBase(base) + "-";
+        }
+
+        private String next(String baseSuggestion, Set<String> takenSlugs) {
+            if (!takenSlugs.contains(base) && !RESERVED_SLUGS.contains(base)) {
+                return base;
+            }
+            collisionCounter.increment();
+            while (takenSlugs.contains(suffixPrefix + nextSuffix)) {
+                nextSuffix++;
+            }
+            String slug = suffixPrefix + nextSuffix++;
+            if (slug.length() > MAX_SLUG_LENGTH) {
+                log.error("Sufixos esgotados para a base de slug: {}. Usando UUID como fallback.", baseSuggestion);
+                return UUID.randomUUID().toString().substring(0, 12);
+            }
+            log.warn("Colisão de slug detectada para '{}'. Usando '{}'", baseSuggestion, slug);
+            return slug;
+        }
+    }
+}
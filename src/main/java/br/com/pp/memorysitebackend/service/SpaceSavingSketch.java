@@ -0,0 +1,80 @@
+package br.com.pp.memorysitebackend.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Contagem aproximada dos itens mais frequentes (algoritmo space-saving) em memória fixa: no máximo
+ * {@code capacity} contadores. Quando não há contador livre, o item novo herda o menor contador e
+ * registra esse valor como erro; a contagem real fica entre {@code count - error} e {@code count}.
+ * Não é thread-safe.
+ */
+final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final Map<String, Counter> counters;
+    private long maxEvictedCount;
+
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    void offer(String item) {
+        Counter counter = counters.get(item);
+        if (counter != null) {
+            counter.count++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(item, new Counter(1, 0));
+            return;
+        }
+        // Varredura O(capacity), só quando o item é novo e não há contador livre.
+        Map.Entry<String, Counter> min = null;
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            if (min == null || entry.getValue().count < min.getValue().count) {
+                min = entry;
+            }
+        }
+        long minCount = min.getValue().count;
+        maxEvictedCount = Math.max(maxEvictedCount, minCount);
+        counters.remove(min.getKey());
+        counters.put(item, new Counter(minCount + 1, minCount));
+    }
+
+    void remove(String item) {
+        counters.remove(item);
+    }
+
+    void clear() {
+        counters.clear();
+        maxEvictedCount = 0;
+    }
+
+    /**
+     * Maior contagem que um item sem contador pode ter: o maior contador já descartado (0 se nenhum foi).
+     */
+    long maxUntrackedCount() {
+        return maxEvictedCount;
+    }
+
+    /**
+     * Entrega cada item com {@code {count, error}}.
+     */
+    void forEach(BiConsumer<String, long[]> consumer) {
+        counters.forEach((item, counter) -> consumer.accept(item, new long[]{counter.count, counter.error}));
+    }
+
+    private static final class Counter {
+
+        private long count;
+        private final long error;
+
+        private Counter(long count, long error) {
+            this.count = count;
+            this.error = error;
+        }
+    }
+}
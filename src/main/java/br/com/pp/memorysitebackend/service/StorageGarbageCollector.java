@@ -0,0 +1,241 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.StoredObjectSummary;
+import br.com.pp.memorysitebackend.entity.StorageDeletion;
+import br.com.pp.memorysitebackend.repository.MediaObjectRepository;
+import br.com.pp.memorysitebackend.repository.StorageDeletionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remove do bucket os objetos que nenhuma página usa mais. As alterações de página enfileiram as URLs liberadas
+ * em {@code storage_deletion_queue}; o sweep reivindica lotes com {@code FOR UPDATE SKIP LOCKED}, confere de novo
+ * se cada objeto continua sem referências e o remove com DeleteObjects, respeitando um limite de remoções por
+ * segundo. Objetos só são coletados depois de {@code grace-period}, para não remover um upload em andamento;
+ * remoções recusadas pelo storage são repetidas depois de {@code retry-delay}.
+ */
+@Component
+public class StorageGarbageCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageGarbageCollector.class);
+
+    private final StorageDeletionRepository storageDeletionRepository;
+    private final MediaObjectRepository mediaObjectRepository;
+    private final StorageService storageService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+    private final Duration gracePeriod;
+    private final Duration retryDelay;
+    private final double deletesPerSecond;
+    private final List<String> reconcilePrefixes;
+
+    private final Counter deletedCounter;
+    private final Counter skippedCounter;
+    private final Counter failedCounter;
+    private final Counter reconciledCounter;
+    private final AtomicLong pending = new AtomicLong();
+
+    public StorageGarbageCollector(StorageDeletionRepository storageDeletionRepository,
+                                   MediaObjectRepository mediaObjectRepository,
+                                   StorageService storageService,
+                                   TransactionTemplate transactionTemplate,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.storage.gc.batch-size:500}") int batchSize,
+                                   @Value("${app.storage.gc.max-batches-per-run:10}") int maxBatchesPerRun,
+                                   @Value("${app.storage.gc.grace-period:1h}") Duration gracePeriod,
+                                   @Value("${app.storage.gc.retry-delay:5m}") Duration retryDelay,
+                                   @Value("${app.storage.gc.deletes-per-second:200}") double deletesPerSecond,
+                                   @Value("${app.storage.gc.reconcile-prefixes:images/,music/}") List<String> reconcilePrefixes) {
+        this.storageDeletionRepository = storageDeletionRepository;
+        this.mediaObjectRepository = mediaObjectRepository;
+        this.storageService = storageService;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+        this.gracePeriod = gracePeriod;
+        this.retryDelay = retryDelay;
+        this.deletesPerSecond = deletesPerSecond;
+        this.reconcilePrefixes = reconcilePrefixes;
+        this.deletedCounter = Counter.builder("storage.gc.objects")
+                .description("Objetos processados pelo coletor do storage")
+                .tag("result", "deleted")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("storage.gc.objects")
+                .description("Objetos processados pelo coletor do storage")
+                .tag("result", "still-referenced")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("storage.gc.objects")
+                .description("Objetos processados pelo coletor do storage")
+                .tag("result", "failed")
+                .register(meterRegistry);
+        this.reconciledCounter = Counter.builder("storage.gc.reconciled")
+                .description("Objetos sem referência encontrados pela reconciliação com a listagem do bucket")
+                .register(meterRegistry);
+        Gauge.builder("storage.gc.pending", pending, AtomicLong::get)
+                .description("Objetos na fila de remoção")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enfileira as URLs que uma página deixou de usar. URLs de fora do bucket são ignoradas.
+     * Deve rodar na transação que altera a página, para que um rollback também desfaça o enfileiramento.
+     */
+    public void enqueue(Collection<String> publicUrls) {
+        Map<String, String> publicUrlsByKey = new LinkedHashMap<>();
+        for (String publicUrl : publicUrls) {
+            storageService.findObjectKey(publicUrl).ifPresent(objectKey -> publicUrlsByKey.put(objectKey, publicUrl));
+        }
+        storageDeletionRepository.enqueue(publicUrlsByKey);
+    }
+
+    @Scheduled(fixedDelayString = "${app.storage.gc.interval-ms:60000}", initialDelayString = "${app.storage.gc.interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(gracePeriod);
+        try {
+            int orphaned = storageDeletionRepository.enqueueUnreferencedMediaObjects(cutoff);
+            if (orphaned > 0) {
+                log.info("{} objetos sem referências no índice de conteúdo enfileirados para remoção", orphaned);
+            }
+            for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+                long start = System.nanoTime();
+                SweepResult result = transactionTemplate.execute(status -> sweepBatch(cutoff));
+                if (result == null || result.claimed() == 0) {
+                    break;
+                }
+                throttle(result.deleted(), start);
+                if (result.claimed() < batchSize) {
+                    break;
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha na coleta de objetos do storage. Será tentada de novo na próxima execução.", e);
+        } finally {
+            refreshPending();
+        }
+    }
+
+    private SweepResult sweepBatch(LocalDateTime cutoff) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StorageDeletion> due = storageDeletionRepository.claimDue(cutoff, now, batchSize);
+        if (due.isEmpty()) {
+            return new SweepResult(0, 0);
+        }
+        List<String> publicUrls = due.stream().map(StorageDeletion::getPublicUrl).toList();
+        // Tira do índice o que está sem uso; o que sobrar no índice conta como referenciado logo abaixo.
+        mediaObjectRepository.deleteUnreferenced(publicUrls.toArray(String[]::new), cutoff);
+        Set<String> referenced = storageDeletionRepository.findReferencedUrls(publicUrls);
+
+        List<String> keysToDelete = due.stream()
+                .filter(deletion -> !referenced.contains(deletion.getPublicUrl()))
+                .map(StorageDeletion::getObjectKey)
+                .toList();
+        Set<String> failedKeys = new HashSet<>(storageService.deleteObjects(keysToDelete));
+
+        List<String> doneKeys = due.stream().map(StorageDeletion::getObjectKey).filter(key -> !failedKeys.contains(key)).toList();
+        storageDeletionRepository.remove(doneKeys);
+        storageDeletionRepository.recordFailures(failedKeys, now.plus(retryDelay));
+
+        int deleted = keysToDelete.size() - failedKeys.size();
+        deletedCounter.increment(deleted);
+        skippedCounter.increment(due.size() - keysToDelete.size());
+        failedCounter.increment(failedKeys.size());
+        log.info("Coleta do storage: {} objetos removidos, {} ainda em uso, {} falhas", deleted, due.size() - keysToDelete.size(), failedKeys.size());
+        return new SweepResult(due.size(), keysToDelete.size());
+    }
+
+    /**
+     * Modo de reconciliação: percorre a listagem do bucket (uma página por vez) e enfileira os objetos mais antigos
+     * que o período de carência que nenhuma página referencia. Pega o que escapou da fila, como uploads diretos
+     * nunca confirmados e objetos removidos de páginas antes da existência da fila. Desligado por padrão.
+     * <p>
+     * As URLs em uso são lidas uma única vez por execução, e não a cada página da listagem. Uma URL que passe a ser
+     * usada depois dessa leitura pode ser enfileirada, mas o sweep confere as referências de novo antes de remover.
+     */
+    @Scheduled(cron = "${app.storage.gc.reconcile-cron:-}")
+    public void reconcile() {
+        Set<String> referenced;
+        try {
+            referenced = storageDeletionRepository.findAllReferencedUrls();
+        } catch (RuntimeException e) {
+            log.error("Falha ao carregar as URLs em uso para a reconciliação do storage", e);
+            return;
+        }
+        for (String prefix : reconcilePrefixes) {
+            try {
+                long enqueued = reconcile(prefix, referenced);
+                log.info("Reconciliação do prefixo '{}' concluída: {} objetos sem referência enfileirados", prefix, enqueued);
+            } catch (RuntimeException e) {
+                log.error("Falha na reconciliação do prefixo '{}' do storage", prefix, e);
+            }
+        }
+    }
+
+    public long reconcile(String prefix) {
+        return reconcile(prefix, storageDeletionRepository.findAllReferencedUrls());
+    }
+
+    private long reconcile(String prefix, Set<String> referenced) {
+        Instant cutoff = Instant.now().minus(gracePeriod);
+        AtomicLong enqueued = new AtomicLong();
+        storageService.forEachObjectPage(prefix, objects -> {
+            Map<String, String> candidates = new LinkedHashMap<>();
+            for (StoredObjectSummary object : objects) {
+                if (object.getLastModified() == null || object.getLastModified().isBefore(cutoff)) {
+                    candidates.put(object.getObjectKey(), storageService.publicUrlOf(object.getObjectKey()));
+                }
+            }
+            if (candidates.isEmpty()) {
+                return;
+            }
+            candidates.values().removeIf(referenced::contains);
+            storageDeletionRepository.enqueue(candidates);
+            enqueued.addAndGet(candidates.size());
+            reconciledCounter.increment(candidates.size());
+        });
+        return enqueued.get();
+    }
+
+    // Espaça os lotes para não passar de deletes-per-second remoções.
+    private void throttle(int deleted, long startNanos) {
+        long minimumMillis = (long) (deleted * 1000 / deletesPerSecond);
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+        if (minimumMillis <= elapsedMillis) {
+            return;
+        }
+        try {
+            Thread.sleep(minimumMillis - elapsedMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void refreshPending() {
+        try {
+            pending.set(storageDeletionRepository.count());
+        } catch (RuntimeException e) {
+            log.warn("Não foi possível consultar a fila de remoção do storage", e);
+        }
+    }
+
+    private record SweepResult(int claimed, int deleted) {
+    }
+}
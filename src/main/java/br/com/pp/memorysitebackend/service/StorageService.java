@@ -0,0 +1,65 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.DirectUploadResponse;
+import br.com.pp.memorysitebackend.dto.MediaKind;
+import br.com.pp.memorysitebackend.dto.MusicUploadResponse;
+import br.com.pp.memorysitebackend.dto.StoredObjectSummary;
+import br.com.pp.memorysitebackend.dto.UploadedPartResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+public interface StorageService {
+
+    List<String> uploadImages(String slug, List<MultipartFile> files) throws IOException;
+
+    String uploadMusic(String slug, MultipartFile file) throws IOException;
+
+    DirectUploadResponse presignUpload(String slug, MediaKind kind, String originalFilename, String contentType, long contentLength);
+
+    String verifyDirectUpload(MediaKind kind, String objectKey, long maxBytes) throws IOException;
+
+    void deleteByPublicUrls(List<String> publicUrls);
+
+    List<String> deleteObjects(List<String> objectKeys);
+
+    void forEachObjectPage(String prefix, Consumer<List<StoredObjectSummary>> consumer);
+
+    /**
+     * Chave do objeto para uma URL pública do bucket, ou vazio se a URL não for do bucket.
+     */
+    Optional<String> findObjectKey(String publicUrl);
+
+    String publicUrlOf(String objectKey);
+
+    InputStream openObject(String publicUrl) throws IOException;
+
+    /**
+     * Grava o objeto em {@code target} (que não deve existir) direto do stream, sem carregá-lo na memória.
+     * Devolve o content type, ou vazio se o objeto não existir.
+     */
+    Optional<String> downloadObject(String objectKey, Path target) throws IOException;
+
+    String uploadImageVariant(String originalUrl, int width, byte[] content, String contentType) throws IOException;
+
+    MusicUploadResponse startMusicUpload(String slug, String originalFilename, String contentType);
+
+    UploadedPartResponse uploadMusicPart(String objectKey, String uploadId, int partNumber, InputStream content) throws IOException;
+
+    List<UploadedPartResponse> listMusicParts(String objectKey, String uploadId);
+
+    /**
+     * Verdadeiro se o upload em partes existir, ainda aberto, para exatamente este {@code objectKey}.
+     */
+    boolean musicUploadExists(String objectKey, String uploadId);
+
+    String completeMusicUpload(String objectKey, String uploadId) throws IOException;
+
+    void abortMusicUpload(String objectKey, String uploadId);
+
+}
@@ -0,0 +1,522 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.DirectUploadResponse;
+import br.com.pp.memorysitebackend.dto.MediaKind;
+import br.com.pp.memorysitebackend.dto.MusicUploadResponse;
+import br.com.pp.memorysitebackend.dto.StoredObjectSummary;
+import br.com.pp.memorysitebackend.dto.UploadedPartResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.Delete;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+@Service
+public class StorageServiceImpl implements StorageService {
+
+    private static final Logger log = LoggerFactory.getLogger(StorageServiceImpl.class);
+
+    private static final int MAX_PART_NUMBER = 10_000;
+    // Limite do S3 para chaves por DeleteObjects.
+    private static final int MAX_KEYS_PER_DELETE = 1000;
+
+    private final S3Client s3Client;
+    private final S3Presigner s3Presigner;
+    private final Executor uploadExecutor;
+    private final String supabaseApiUrl;
+    private final String supabaseBucketName;
+    private final int maxConcurrentUploadsPerRequest;
+    private final PartBufferPool partBufferPool;
+    private final MediaIndex mediaIndex;
+    private final Duration presignTtl;
+
+    public StorageServiceImpl(S3Client s3Client,
+                              S3Presigner s3Presigner,
+                              @Qualifier("storageUploadExecutor") Executor uploadExecutor,
+                              PartBufferPool partBufferPool,
+                              MediaIndex mediaIndex,
+                              @Value("${supabase.api.url}") String supabaseApiUrl,
+                              @Value("${supabase.bucket.name}") String supabaseBucketName,
+                              @Value("${app.storage.upload.max-concurrency-per-request:4}") int maxConcurrentUploadsPerRequest,
+                              @Value("${app.storage.direct-upload.ttl:10m}") Duration presignTtl) {
+        this.s3Client = s3Client;
+        this.s3Presigner = s3Presigner;
+        this.uploadExecutor = uploadExecutor;
+        this.supabaseApiUrl = supabaseApiUrl;
+        this.supabaseBucketName = supabaseBucketName;
+        this.maxConcurrentUploadsPerRequest = maxConcurrentUploadsPerRequest;
+        this.partBufferPool = partBufferPool;
+        this.mediaIndex = mediaIndex;
+        this.presignTtl = presignTtl;
+    }
+
+    /**
+     * Envia os arquivos em paralelo (no máximo {@code max-concurrency-per-request} por vez) e devolve as
+     * URLs públicas na mesma ordem dos arquivos. Arquivos cujo conteúdo já está no bucket não são reenviados.
+     * Se algum envio falhar, os objetos já enviados continuam no índice sem referências: uma nova tentativa
+     * os reutiliza e, como podem ser compartilhados com outras páginas, não são apagados aqui.
+     */
+    @Override
+    public List<String> uploadImages(String slug, List<MultipartFile> files) throws IOException {
+        Semaphore permits = new Semaphore(maxConcurrentUploadsPerRequest);
+        List<CompletableFuture<String>> uploads = new ArrayList<>();
+
+        for (MultipartFile file : files) {
+            if (file.isEmpty()) { continue; }
+
+            try {
+                permits.acquire();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                uploads.add(CompletableFuture.failedFuture(new IOException("Upload interrompido para slug " + slug, e)));
+                break;
+            }
+            uploads.add(CompletableFuture
+                    .supplyAsync(() -> putDeduplicated(slug, MediaKind.IMAGE, file), uploadExecutor)
+                    .whenComplete((publicUrl, error) -> permits.release()));
+        }
+
+        List<String> savedPublicUrls = new ArrayList<>();
+        IOException failure = null;
+        for (CompletableFuture<String> upload : uploads) {
+            try {
+                savedPublicUrls.add(upload.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = toIOException(e.getCause());
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return savedPublicUrls;
+    }
+
+    @Override
+    public String uploadMusic(String slug, MultipartFile file) throws IOException {
+        try {
+            return putDeduplicated(slug, MediaKind.MUSIC, file);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Assina um PUT de {@code contentLength} bytes com o {@code contentType} informado para uma chave nova do slug.
+     * Os bytes vão do cliente direto ao bucket; o servidor só volta a participar em {@link #verifyDirectUpload}.
+     */
+    @Override
+    public DirectUploadResponse presignUpload(String slug, MediaKind kind, String originalFilename, String contentType, long contentLength) {
+        String objectKey = newObjectKey(kind.getKeyPrefix(), slug, originalFilename);
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presign -> presign
+                .signatureDuration(presignTtl)
+                .putObjectRequest(PutObjectRequest.builder()
+                        .bucket(supabaseBucketName)
+                        .key(objectKey)
+                        .contentType(contentType)
+                        .contentLength(contentLength)
+                        .build()));
+        // "host" é definido pelo próprio cliente HTTP; os demais headers assinados precisam ser enviados iguais.
+        Map<String, String> headers = presigned.signedHeaders().entrySet().stream()
+                .filter(header -> !"host".equalsIgnoreCase(header.getKey()))
+                .collect(Collectors.toMap(Map.Entry::getKey, header -> String.join(",", header.getValue())));
+        log.info("URL de upload direto assinada. Key: '{}', expira em {}", objectKey, presigned.expiration());
+        return new DirectUploadResponse(objectKey, presigned.url().toString(), presigned.httpRequest().method().name(),
+                headers, presigned.expiration());
+    }
+
+    /**
+     * Confere com um HEAD que o objeto enviado direto ao bucket existe, tem o tipo esperado e no máximo
+     * {@code maxBytes}. Objetos fora dessas regras são removidos. Devolve a URL pública.
+     */
+    @Override
+    public String verifyDirectUpload(MediaKind kind, String objectKey, long maxBytes) throws IOException {
+        HeadObjectResponse head;
+        try {
+            head = s3Client.headObject(HeadObjectRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .key(objectKey)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new IllegalArgumentException("Arquivo não encontrado no storage: " + objectKey);
+        } catch (Exception e) {
+            throw new IOException("Falha ao consultar objeto no Supabase S3: " + objectKey, e);
+        }
+        String rejection = null;
+        if (!kind.accepts(head.contentType())) {
+            rejection = "Tipo de arquivo inválido: " + head.contentType();
+        } else if (head.contentLength() == null || head.contentLength() > maxBytes) {
+            rejection = "Arquivo maior que o limite de " + maxBytes + " bytes.";
+        }
+        if (rejection != null) {
+            log.warn("Upload direto recusado. Key: '{}'. {}", objectKey, rejection);
+            deleteByPublicUrls(List.of(publicUrl(kind, objectKey)));
+            throw new IllegalArgumentException(rejection);
+        }
+        return publicUrl(kind, objectKey);
+    }
+
+    @Override
+    public void deleteByPublicUrls(List<String> publicUrls) {
+        if (publicUrls.isEmpty()) {
+            return;
+        }
+        try {
+            List<String> failedKeys = deleteObjects(publicUrls.stream().map(this::objectKeyFromPublicUrl).toList());
+            if (!failedKeys.isEmpty()) {
+                log.error("Falha ao remover objetos do Supabase S3: {}", failedKeys);
+            }
+        } catch (Exception e) {
+            log.error("Erro ao remover objetos do Supabase S3: {}", publicUrls, e);
+        }
+    }
+
+    /**
+     * Remove os objetos com DeleteObjects, em chamadas de até 1000 chaves. Chaves inexistentes contam como
+     * removidas, então repetir a remoção é seguro. Devolve as chaves que o storage recusou remover.
+     */
+    @Override
+    public List<String> deleteObjects(List<String> objectKeys) {
+        List<String> failedKeys = new ArrayList<>();
+        for (int from = 0; from < objectKeys.size(); from += MAX_KEYS_PER_DELETE) {
+            List<ObjectIdentifier> identifiers = objectKeys.subList(from, Math.min(from + MAX_KEYS_PER_DELETE, objectKeys.size()))
+                    .stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            DeleteObjectsResponse response = s3Client.deleteObjects(DeleteObjectsRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .delete(Delete.builder().objects(identifiers).quiet(true).build())
+                    .build());
+            if (response.hasErrors()) {
+                response.errors().stream().map(S3Error::key).forEach(failedKeys::add);
+            }
+            log.info("Removidos {} objetos do Supabase S3", identifiers.size() - (response.hasErrors() ? response.errors().size() : 0));
+        }
+        return failedKeys;
+    }
+
+    /**
+     * Percorre os objetos do bucket com o prefixo informado, uma página da listagem (até 1000 objetos) por vez,
+     * sem manter a listagem inteira em memória.
+     */
+    @Override
+    public void forEachObjectPage(String prefix, Consumer<List<StoredObjectSummary>> consumer) {
+        s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(supabaseBucketName)
+                        .prefix(prefix)
+                        .build())
+                .forEach(page -> consumer.accept(page.contents().stream()
+                        .map(object -> new StoredObjectSummary(object.key(), object.lastModified(), object.size() != null ? object.size() : 0))
+                        .toList()));
+    }
+
+    @Override
+    public Optional<String> findObjectKey(String publicUrl) {
+        String marker = "/object/public/" + supabaseBucketName + "/";
+        if (publicUrl == null || !publicUrl.contains(marker)) {
+            return Optional.empty();
+        }
+        return Optional.of(objectKeyFromPublicUrl(publicUrl));
+    }
+
+    @Override
+    public String publicUrlOf(String objectKey) {
+        return objectKey.startsWith(MediaKind.MUSIC.getKeyPrefix()) ? publicMusicUrl(objectKey) : publicImageUrl(objectKey);
+    }
+
+    @Override
+    public InputStream openObject(String publicUrl) throws IOException {
+        String objectKey = objectKeyFromPublicUrl(publicUrl);
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .key(objectKey)
+                    .build());
+        } catch (Exception e) {
+            throw new IOException("Falha ao ler objeto do Supabase S3: " + objectKey, e);
+        }
+    }
+
+    @Override
+    public Optional<String> downloadObject(String objectKey, Path target) throws IOException {
+        try {
+            GetObjectResponse response = s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .key(objectKey)
+                    .build(), ResponseTransformer.toFile(target));
+            return Optional.of(response.contentType() != null ? response.contentType() : "application/octet-stream");
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        } catch (Exception e) {
+            throw new IOException("Falha ao baixar objeto do Supabase S3: " + objectKey, e);
+        }
+    }
+
+    @Override
+    public String uploadImageVariant(String originalUrl, int width, byte[] content, String contentType) throws IOException {
+        String originalKey = objectKeyFromPublicUrl(originalUrl);
+        String baseName = originalKey.substring(originalKey.lastIndexOf('/') + 1);
+        if (baseName.contains(".")) {
+            baseName = baseName.substring(0, baseName.lastIndexOf('.'));
+        }
+        String objectKey = "images/variants/" + baseName + "_w" + width + ".jpg";
+        try {
+            PutObjectResponse response = s3Client.putObject(PutObjectRequest.builder()
+                            .bucket(supabaseBucketName)
+                            .key(objectKey)
+                            .contentType(contentType)
+                            .build(),
+                    RequestBody.fromBytes(content));
+            if (response == null || !response.sdkHttpResponse().isSuccessful()) {
+                throw new IOException("Falha no upload da variante " + objectKey + ". Resposta: " + response);
+            }
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Falha ao fazer upload da variante " + objectKey, e);
+        }
+        return publicImageUrl(objectKey);
+    }
+
+    @Override
+    public MusicUploadResponse startMusicUpload(String slug, String originalFilename, String contentType) {
+        String objectKey = newObjectKey("music/", slug, originalFilename);
+        CreateMultipartUploadResponse response = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(supabaseBucketName)
+                .key(objectKey)
+                .contentType(contentType)
+                .build());
+        log.info("Upload multipart de música iniciado. Key: '{}', UploadId: {}", objectKey, response.uploadId());
+        return new MusicUploadResponse(response.uploadId(), objectKey, partBufferPool.partSize(), List.of());
+    }
+
+    /**
+     * Lê a parte do {@code content} para um buffer do pool (nunca mais que {@code part-size} bytes) e a envia.
+     * Reenviar o mesmo {@code partNumber} substitui a parte anterior, o que permite retomar uploads.
+     */
+    @Override
+    public UploadedPartResponse uploadMusicPart(String objectKey, String uploadId, int partNumber, InputStream content) throws IOException {
+        if (partNumber < 1 || partNumber > MAX_PART_NUMBER) {
+            throw new IllegalArgumentException("Número da parte deve estar entre 1 e " + MAX_PART_NUMBER + ".");
+        }
+        byte[] buffer = partBufferPool.acquire();
+        try {
+            int length = content.readNBytes(buffer, 0, buffer.length);
+            if (length == 0) {
+                throw new IllegalArgumentException("Parte " + partNumber + " vazia.");
+            }
+            if (content.read() != -1) {
+                throw new IllegalArgumentException("Parte maior que o limite de " + buffer.length + " bytes.");
+            }
+            UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                            .bucket(supabaseBucketName)
+                            .key(objectKey)
+                            .uploadId(uploadId)
+                            .partNumber(partNumber)
+                            .contentLength((long) length)
+                            .build(),
+                    RequestBody.fromContentProvider(() -> new ByteArrayInputStream(buffer, 0, length), length, "application/octet-stream"));
+            log.info("Parte {} ({} bytes) enviada para Key '{}'", partNumber, length, objectKey);
+            return new UploadedPartResponse(partNumber, response.eTag(), length);
+        } finally {
+            partBufferPool.release(buffer);
+        }
+    }
+
+    @Override
+    public List<UploadedPartResponse> listMusicParts(String objectKey, String uploadId) {
+        return s3Client.listPartsPaginator(ListPartsRequest.builder()
+                        .bucket(supabaseBucketName)
+                        .key(objectKey)
+                        .uploadId(uploadId)
+                        .build())
+                .parts()
+                .stream()
+                .map(part -> new UploadedPartResponse(part.partNumber(), part.eTag(), part.size()))
+                .toList();
+    }
+
+    // O uploadId é amarrado à chave no S3: ListParts com a chave de outro upload responde NoSuchUpload.
+    @Override
+    public boolean musicUploadExists(String objectKey, String uploadId) {
+        try {
+            s3Client.listParts(ListPartsRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .maxParts(1)
+                    .build());
+            return true;
+        } catch (NoSuchUploadException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public String completeMusicUpload(String objectKey, String uploadId) throws IOException {
+        List<CompletedPart> completedParts = listMusicParts(objectKey, uploadId).stream()
+                .sorted(Comparator.comparingInt(UploadedPartResponse::getPartNumber))
+                .map(part -> CompletedPart.builder().partNumber(part.getPartNumber()).eTag(part.getEtag()).build())
+                .toList();
+        if (completedParts.isEmpty()) {
+            throw new IllegalArgumentException("Nenhuma parte enviada para o upload " + uploadId + ".");
+        }
+        try {
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (Exception e) {
+            log.error("Erro ao concluir upload multipart de música. Key: {}, UploadId: {}", objectKey, uploadId, e);
+            throw new IOException("Falha ao concluir upload da música.", e);
+        }
+        String publicUrl = publicMusicUrl(objectKey);
+        log.info("Upload multipart de música concluído com {} partes. URL pública: {}", completedParts.size(), publicUrl);
+        return publicUrl;
+    }
+
+    @Override
+    public void abortMusicUpload(String objectKey, String uploadId) {
+        s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                .bucket(supabaseBucketName)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .build());
+        log.info("Upload multipart de música cancelado. Key: '{}', UploadId: {}", objectKey, uploadId);
+    }
+
+    /**
+     * Calcula o SHA-256 do arquivo e só faz o PUT se o conteúdo ainda não estiver no índice.
+     * A chave do objeto é derivada do hash, então envios concorrentes do mesmo conteúdo gravam o mesmo objeto.
+     */
+    private String putDeduplicated(String slug, MediaKind kind, MultipartFile file) {
+        String originalFilename = file.getOriginalFilename();
+        try {
+            String contentHash = MediaIndex.sha256(file);
+            Optional<String> existingUrl = mediaIndex.findPublicUrl(contentHash);
+            if (existingUrl.isPresent()) {
+                log.info("Conteúdo de '{}' já armazenado (sha256 {}). Reutilizando {}", originalFilename, contentHash, existingUrl.get());
+                return existingUrl.get();
+            }
+
+            String objectKey = kind.getKeyPrefix() + contentHash + extensionOf(originalFilename);
+            log.info("Fazendo upload para Supabase Storage. Bucket: '{}', Key: '{}'", supabaseBucketName, objectKey);
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(supabaseBucketName)
+                    .key(objectKey)
+                    .contentType(file.getContentType())
+                    .build();
+
+            PutObjectResponse response = s3Client.putObject(putObjectRequest,
+                    RequestBody.fromInputStream(file.getInputStream(), file.getSize()));
+
+            if (response != null && response.sdkHttpResponse().isSuccessful()) {
+                String publicUrl = publicUrl(kind, objectKey);
+                mediaIndex.register(contentHash, objectKey, publicUrl, file.getContentType(), file.getSize());
+                log.info("Upload com sucesso para Supabase. URL pública: {}", publicUrl);
+                return publicUrl;
+            }
+            log.error("Falha no upload para Supabase S3 para o arquivo {}. Resposta: {}", objectKey, response);
+            throw new IOException("Falha no upload para Supabase S3 para o arquivo " + originalFilename);
+        } catch (Exception e) {
+            log.error("Erro durante upload para Supabase S3 do arquivo '{}' para slug {}", originalFilename, slug, e);
+            throw new UncheckedIOException(new IOException("Falha ao fazer upload do arquivo: " + originalFilename, e));
+        }
+    }
+
+    private static IOException toIOException(Throwable cause) {
+        if (cause instanceof UncheckedIOException unchecked) {
+            return unchecked.getCause();
+        }
+        return cause instanceof IOException ioException ? ioException : new IOException(cause);
+    }
+
+    private static String newObjectKey(String prefix, String slug, String originalFilename) {
+        return prefix + slug + "_" + Instant.now().toEpochMilli() + "_" + UUID.randomUUID().toString().substring(0, 6) + extensionOf(originalFilename);
+    }
+
+    private static String extensionOf(String originalFilename) {
+        if (originalFilename != null && originalFilename.contains(".")) {
+            return originalFilename.substring(originalFilename.lastIndexOf("."));
+        }
+        return "";
+    }
+
+    private String publicUrl(MediaKind kind, String objectKey) {
+        return kind == MediaKind.MUSIC ? publicMusicUrl(objectKey) : publicImageUrl(objectKey);
+    }
+
+    private String publicImageUrl(String objectKey) {
+        String encodedKey = URLEncoder.encode(objectKey, StandardCharsets.UTF_8).replace("+", "%20");
+        return supabaseApiUrl + "/object/public/" + supabaseBucketName + "/" + encodedKey;
+    }
+
+    private String publicMusicUrl(String objectKey) {
+        String encodedKey = URLEncoder.encode(objectKey, StandardCharsets.UTF_8).replace("+", "%20");
+        return supabaseApiUrl + "/storage/v1/object/public/" + supabaseBucketName + "/" + encodedKey;
+    }
+
+    private String objectKeyFromPublicUrl(String publicUrl) {
+        String marker = "/object/public/" + supabaseBucketName + "/";
+        int index = publicUrl.indexOf(marker);
+        if (index < 0) {
+            throw new IllegalArgumentException("URL não pertence ao bucket " + supabaseBucketName + ": " + publicUrl);
+        }
+        return URLDecoder.decode(publicUrl.substring(index + marker.length()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,192 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.TrendingPage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Páginas mais vistas nas últimas janelas (ex.: 1h e 24h), em memória fixa. As visualizações vão para um anel de
+ * buckets de {@code bucket-duration}, cada um com um {@link SpaceSavingSketch} de {@code capacity-per-bucket}
+ * contadores; buckets mais velhos que a maior janela são reaproveitados, e com eles somem as contagens antigas.
+ * O ranking de cada janela é recalculado em segundo plano, então a consulta só devolve uma lista pronta.
+ * Cada instância conta apenas as visualizações que recebeu.
+ */
+@Component
+public class TrendingTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(TrendingTracker.class);
+
+    private static final Comparator<TrendingPage> MOST_VIEWED = Comparator.comparingLong(TrendingPage::getViews).reversed()
+            .thenComparing(TrendingPage::getSlug);
+
+    private final long bucketMillis;
+    private final List<Duration> windows;
+    private final int maxResults;
+    private final Clock clock;
+    private final Bucket[] ring;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile Map<Duration, Ranking> rankings = Map.of();
+
+    @Autowired
+    public TrendingTracker(@Value("${app.trending.bucket-duration:5m}") Duration bucketDuration,
+                           @Value("${app.trending.capacity-per-bucket:100}") int capacityPerBucket,
+                           @Value("${app.trending.windows:1h,24h}") List<Duration> windows,
+                           @Value("${app.trending.max-results:50}") int maxResults) {
+        this(bucketDuration, capacityPerBucket, windows, maxResults, Clock.systemUTC());
+    }
+
+    TrendingTracker(Duration bucketDuration, int capacityPerBucket, List<Duration> windows, int maxResults, Clock clock) {
+        if (bucketDuration.toMillis() <= 0 || windows.isEmpty()) {
+            throw new IllegalArgumentException("app.trending.bucket-duration e app.trending.windows são obrigatórios");
+        }
+        this.bucketMillis = bucketDuration.toMillis();
+        this.windows = windows.stream().sorted().toList();
+        this.maxResults = maxResults;
+        this.clock = clock;
+        this.ring = new Bucket[bucketsOf(this.windows.get(this.windows.size() - 1))];
+        for (int i = 0; i < ring.length; i++) {
+            ring[i] = new Bucket(new SpaceSavingSketch(capacityPerBucket));
+        }
+        refresh();
+        log.info("Ranking de páginas configurado. Janelas: {}, buckets: {} x {} contadores", this.windows, ring.length, capacityPerBucket);
+    }
+
+    public void record(String slug) {
+        long epoch = currentEpoch();
+        Bucket bucket = ring[Math.floorMod(epoch, ring.length)];
+        lock.lock();
+        try {
+            if (bucket.epoch != epoch) {
+                bucket.sketch.clear();
+                bucket.epoch = epoch;
+            }
+            bucket.sketch.offer(slug);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Tira a página de todos os buckets (ex.: página removida) e recalcula os rankings.
+     */
+    public void remove(String slug) {
+        lock.lock();
+        try {
+            for (Bucket bucket : ring) {
+                bucket.sketch.remove(slug);
+            }
+        } finally {
+            lock.unlock();
+        }
+        refresh();
+    }
+
+    public int maxResults() {
+        return maxResults;
+    }
+
+    /**
+     * Ranking já calculado da janela. Só as janelas de {@code app.trending.windows} são mantidas.
+     */
+    public Ranking top(Duration window, int limit) {
+        Ranking ranking = rankings.get(window);
+        if (ranking == null) {
+            throw new IllegalArgumentException("Janela não suportada: " + window + ". Use uma de: "
+                    + windows.stream().map(Duration::toString).collect(Collectors.joining(", ")));
+        }
+        return new Ranking(ranking.generatedAt(), ranking.pages().subList(0, Math.min(limit, ranking.pages().size())));
+    }
+
+    /**
+     * Soma os buckets do mais novo para o mais velho numa única passada, fechando o ranking de cada janela
+     * ao atingir o número de buckets dela. O lock é tomado por bucket, sem travar as visualizações por toda a soma.
+     * Um bucket cheio pode ter descartado a página: nele, o limite superior dela é o maior contador descartado.
+     */
+    @Scheduled(fixedDelayString = "${app.trending.refresh-interval-ms:5000}")
+    public void refresh() {
+        long epoch = currentEpoch();
+        Instant generatedAt = clock.instant();
+        // Por slug: {contagem, erro, soma de maxUntrackedCount dos buckets em que a página tinha contador}.
+        Map<String, long[]> totals = new HashMap<>();
+        long untrackedTotal = 0;
+        Map<Duration, Ranking> refreshed = new HashMap<>();
+        int windowIndex = 0;
+        for (int age = 0; age < ring.length && windowIndex < windows.size(); age++) {
+            long bucketEpoch = epoch - age;
+            Bucket bucket = ring[Math.floorMod(bucketEpoch, ring.length)];
+            lock.lock();
+            try {
+                if (bucket.epoch == bucketEpoch) {
+                    long bucketUntracked = bucket.sketch.maxUntrackedCount();
+                    untrackedTotal += bucketUntracked;
+                    bucket.sketch.forEach((slug, counter) -> totals.merge(slug,
+                            new long[]{counter[0], counter[1], bucketUntracked}, (total, added) -> {
+                                total[0] += added[0];
+                                total[1] += added[1];
+                                total[2] += added[2];
+                                return total;
+                            }));
+                }
+            } finally {
+                lock.unlock();
+            }
+            while (windowIndex < windows.size() && bucketsOf(windows.get(windowIndex)) == age + 1) {
+                refreshed.put(windows.get(windowIndex), new Ranking(generatedAt, topOf(totals, untrackedTotal)));
+                windowIndex++;
+            }
+        }
+        rankings = refreshed;
+    }
+
+    private List<TrendingPage> topOf(Map<String, long[]> totals, long untrackedTotal) {
+        PriorityQueue<TrendingPage> top = new PriorityQueue<>(maxResults + 1, MOST_VIEWED.reversed());
+        totals.forEach((slug, counter) -> {
+            top.add(new TrendingPage(slug, counter[0], counter[0] - counter[1], counter[0] + untrackedTotal - counter[2]));
+            if (top.size() > maxResults) {
+                top.poll();
+            }
+        });
+        List<TrendingPage> pages = new ArrayList<>(top);
+        pages.sort(MOST_VIEWED);
+        return List.copyOf(pages);
+    }
+
+    // A janela inclui o bucket atual, ainda incompleto: cobre entre (n - 1) e n buckets.
+    private int bucketsOf(Duration window) {
+        return (int) Math.max(1, (window.toMillis() + bucketMillis - 1) / bucketMillis);
+    }
+
+    private long currentEpoch() {
+        return clock.millis() / bucketMillis;
+    }
+
+    public record Ranking(Instant generatedAt, List<TrendingPage> pages) {
+    }
+
+    private static final class Bucket {
+
+        private final SpaceSavingSketch sketch;
+        private long epoch = -1;
+
+        private Bucket(SpaceSavingSketch sketch) {
+            this.sketch = sketch;
+        }
+    }
+}
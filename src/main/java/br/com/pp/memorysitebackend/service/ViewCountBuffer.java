@@ -0,0 +1,95 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Acumula visualizações por slug em memória e grava no banco em lote,
+ * evitando um UPDATE (e lock de linha) a cada GET. O total devolvido pelo banco atualiza a contagem das páginas
+ * já no {@link MemoryPageCache}, sem descartar a página de nenhum cache.
+ */
+@Component
+@RequiredArgsConstructor
+public class ViewCountBuffer {
+
+    private static final Logger log = LoggerFactory.getLogger(ViewCountBuffer.class);
+
+    private final MemoryPageRepository memoryPageRepository;
+    private final MemoryPageCache memoryPageCache;
+
+    private final ConcurrentHashMap<String, LongAdder> pendingBySlug = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Registra uma visualização e devolve quantas ainda não foram gravadas para o slug.
+     */
+    public long increment(String slug) {
+        // O incremento acontece dentro do compute: o flush só remove um contador zerado sob o mesmo lock da chave,
+        // então nenhuma visualização cai num contador que já saiu do mapa.
+        LongAdder adder = pendingBySlug.compute(slug, (key, current) -> {
+            LongAdder target = current != null ? current : new LongAdder();
+            target.increment();
+            return target;
+        });
+        return adder.sum();
+    }
+
+    public long pending(String slug) {
+        LongAdder adder = pendingBySlug.get(slug);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @Scheduled(fixedDelayString = "${app.view-count.flush-interval-ms:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            Map<String, Long> deltas = snapshot();
+            if (deltas.isEmpty()) {
+                return;
+            }
+            Map<String, Long> viewCounts;
+            try {
+                viewCounts = memoryPageRepository.incrementViewCounts(deltas);
+            } catch (RuntimeException e) {
+                log.error("Falha ao gravar contadores de visualização para {} slugs. Mantendo para a próxima tentativa.", deltas.size(), e);
+                return;
+            }
+            memoryPageCache.updateViewCounts(viewCounts);
+            // Subtrai apenas o que foi gravado; incrementos concorrentes continuam pendentes.
+            deltas.forEach((slug, delta) -> pendingBySlug.get(slug).add(-delta));
+            log.debug("Contadores de visualização gravados para {} slugs", deltas.size());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        log.info("Gravando contadores de visualização pendentes antes do desligamento");
+        flush();
+    }
+
+    private Map<String, Long> snapshot() {
+        Map<String, Long> deltas = new HashMap<>();
+        pendingBySlug.forEach((slug, adder) -> {
+            long delta = adder.sum();
+            if (delta > 0) {
+                deltas.put(slug, delta);
+            } else {
+                pendingBySlug.computeIfPresent(slug, (key, current) -> current.sum() == 0 ? null : current);
+            }
+        });
+        return deltas;
+    }
+}
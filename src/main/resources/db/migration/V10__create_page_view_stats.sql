@@ -0,0 +1,26 @@
+-- Visualizações por página e por hora, gravadas em lote pelo PageViewAnalytics.
+-- visitors_sketch é um HyperLogLog de 2048 registradores (um byte cada) com os visitantes da hora.
+-- Páginas removidas levam suas estatísticas junto.
+CREATE TABLE IF NOT EXISTS page_view_stats (
+    page_id         BIGINT      NOT NULL REFERENCES memory_pages (id) ON DELETE CASCADE,
+    bucket_start    TIMESTAMPTZ NOT NULL,
+    views           BIGINT      NOT NULL,
+    visitors_sketch BYTEA       NOT NULL,
+    PRIMARY KEY (page_id, bucket_start)
+);
+
+-- União de dois sketches do mesmo tamanho: o maior valor de cada registrador.
+-- Permite que várias instâncias somem a mesma hora no INSERT ... ON CONFLICT.
+CREATE OR REPLACE FUNCTION hll_merge(a BYTEA, b BYTEA) RETURNS BYTEA
+    LANGUAGE sql IMMUTABLE STRICT PARALLEL SAFE AS
+$$
+SELECT decode(string_agg(lpad(to_hex(greatest(get_byte(a, i), get_byte(b, i))), 2, '0'), '' ORDER BY i), 'hex')
+FROM generate_series(0, length(a) - 1) AS i
+$$;
+
+-- Agregação da união, para juntar as horas de um dia numa única consulta.
+CREATE OR REPLACE AGGREGATE hll_union_agg(BYTEA) (
+    SFUNC = hll_merge,
+    STYPE = BYTEA,
+    PARALLEL = SAFE
+);
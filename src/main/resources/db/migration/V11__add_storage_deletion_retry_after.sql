@@ -0,0 +1,3 @@
+-- Remoções que falharam voltam a ser tentadas a partir de retry_after, sem alterar enqueued_at:
+-- a carência conta só desde o enfileiramento e não recomeça a cada falha.
+ALTER TABLE storage_deletion_queue ADD COLUMN IF NOT EXISTS retry_after TIMESTAMP(6);
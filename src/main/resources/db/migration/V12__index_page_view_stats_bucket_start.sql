@@ -0,0 +1,6 @@
+-- A limpeza por retenção (DELETE ... WHERE bucket_start < ?) não usa a chave primária, que começa por page_id.
+CREATE INDEX IF NOT EXISTS idx_page_view_stats_bucket_start ON page_view_stats (bucket_start);
+
+-- As horas de um dia passaram a ser unidas na aplicação (PageViewAnalytics.findDailyViewStats): no banco, cada
+-- linha agregada custava uma chamada de hll_merge com 2048 get_byte. hll_merge continua no upsert do flush.
+DROP AGGREGATE IF EXISTS hll_union_agg(BYTEA);
@@ -0,0 +1,21 @@
+-- Esquema inicial, equivalente ao que o Hibernate gerava a partir das entidades.
+-- Em bancos já existentes esta versão é apenas registrada (spring.flyway.baseline-on-migrate).
+
+CREATE TABLE IF NOT EXISTS memory_pages (
+    id             BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    slug           VARCHAR(50)  NOT NULL UNIQUE,
+    title          VARCHAR(100) NOT NULL,
+    dedicated_text TEXT,
+    music_url      VARCHAR(512),
+    target_date    TIMESTAMP(6),
+    creation_date  TIMESTAMP(6) NOT NULL,
+    is_synced      BOOLEAN      NOT NULL DEFAULT FALSE,
+    view_count     BIGINT       NOT NULL DEFAULT 0
+);
+
+CREATE TABLE IF NOT EXISTS memory_page_image_urls (
+    memory_page_id   BIGINT       NOT NULL REFERENCES memory_pages (id),
+    image_urls_order INTEGER      NOT NULL,
+    image_url        VARCHAR(512),
+    PRIMARY KEY (memory_page_id, image_urls_order)
+);
@@ -0,0 +1,2 @@
+-- Permite que "slug LIKE 'base-%'" use índice independentemente da collation do banco.
+CREATE INDEX IF NOT EXISTS idx_memory_pages_slug_prefix ON memory_pages (slug text_pattern_ops);
@@ -0,0 +1,5 @@
+-- Versão (otimista) e data da última alteração, usadas no GET condicional (ETag / Last-Modified).
+ALTER TABLE memory_pages ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE memory_pages ADD COLUMN last_modified_date TIMESTAMP(6);
+UPDATE memory_pages SET last_modified_date = creation_date;
+ALTER TABLE memory_pages ALTER COLUMN last_modified_date SET NOT NULL;
@@ -0,0 +1,2 @@
+-- Versões redimensionadas das imagens: {"<url original>": [{"width": 640, "url": "..."}, ...]}
+ALTER TABLE memory_pages ADD COLUMN image_variants JSONB NOT NULL DEFAULT '{}'::jsonb;
@@ -0,0 +1,4 @@
+-- Índice parcial para o MemoryPageSyncWorker: só as páginas pendentes, na ordem em que são processadas.
+CREATE INDEX IF NOT EXISTS idx_memory_pages_unsynced
+    ON memory_pages (last_modified_date)
+    WHERE is_synced = FALSE;
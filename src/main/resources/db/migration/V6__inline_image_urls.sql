@@ -0,0 +1,12 @@
+-- As URLs de imagem (no máximo 7) passam a ficar na própria linha da página, em ordem, como text[].
+ALTER TABLE memory_pages ADD COLUMN image_urls TEXT[] NOT NULL DEFAULT '{}';
+
+UPDATE memory_pages p
+SET image_urls = i.urls
+FROM (SELECT memory_page_id, array_agg(image_url ORDER BY image_urls_order) AS urls
+      FROM memory_page_image_urls
+      WHERE image_url IS NOT NULL
+      GROUP BY memory_page_id) i
+WHERE i.memory_page_id = p.id;
+
+DROP TABLE memory_page_image_urls;
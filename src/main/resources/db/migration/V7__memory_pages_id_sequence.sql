@@ -0,0 +1,6 @@
+-- Ids passam a vir de uma sequência com incremento 50 (allocationSize do Hibernate), o que permite INSERTs em lote.
+-- O otimizador "pooled" usa os 50 valores até o retornado por nextval, então a sequência parte do maior id atual.
+CREATE SEQUENCE IF NOT EXISTS memory_pages_seq INCREMENT BY 50;
+SELECT setval('memory_pages_seq', GREATEST(COALESCE((SELECT MAX(id) FROM memory_pages), 0), 1));
+
+ALTER TABLE memory_pages ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,11 @@
+-- Índice de conteúdo dos arquivos enviados: um objeto no storage por SHA-256.
+-- ref_count conta as referências em memory_pages (image_urls e music_url); objetos com 0 podem ser removidos.
+CREATE TABLE IF NOT EXISTS media_objects (
+    content_hash VARCHAR(64)  PRIMARY KEY,
+    object_key   VARCHAR(512) NOT NULL,
+    public_url   VARCHAR(512) NOT NULL UNIQUE,
+    content_type VARCHAR(255),
+    size_bytes   BIGINT       NOT NULL,
+    ref_count    INTEGER      NOT NULL DEFAULT 0,
+    created_at   TIMESTAMP(6) NOT NULL DEFAULT now()
+);
@@ -0,0 +1,19 @@
+-- Objetos do bucket que deixaram de ser usados e aguardam remoção pelo StorageGarbageCollector.
+-- A chave é única: enfileirar o mesmo objeto de novo não cria outra entrada.
+CREATE TABLE IF NOT EXISTS storage_deletion_queue (
+    object_key  VARCHAR(1024) PRIMARY KEY,
+    public_url  VARCHAR(2048) NOT NULL,
+    enqueued_at TIMESTAMP(6)  NOT NULL DEFAULT now(),
+    attempts    INTEGER       NOT NULL DEFAULT 0
+);
+
+CREATE INDEX IF NOT EXISTS idx_storage_deletion_queue_enqueued_at
+    ON storage_deletion_queue (enqueued_at);
+
+-- Última vez que o objeto foi criado ou reutilizado por um upload. Objetos sem referências só são
+-- coletados depois de um período de carência, para não remover um upload que ainda será associado.
+ALTER TABLE media_objects ADD COLUMN IF NOT EXISTS last_used_at TIMESTAMP(6) NOT NULL DEFAULT now();
+
+CREATE INDEX IF NOT EXISTS idx_media_objects_unreferenced
+    ON media_objects (last_used_at)
+    WHERE ref_count = 0;
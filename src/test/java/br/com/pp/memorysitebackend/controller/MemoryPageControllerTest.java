@@ -0,0 +1,156 @@
+package br.com.pp.memorysitebackend.controller;
+
+import br.com.pp.memorysitebackend.dto.BatchCreateResult;
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.dto.ProxiedMedia;
+import br.com.pp.memorysitebackend.service.MemoryPageService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class MemoryPageControllerTest {
+
+    private static final String MUSIC = "0123456789abcdef";
+    private static final String ETAG = "\"musica-v1\"";
+
+    @TempDir
+    Path directory;
+
+    private final MemoryPageService memoryPageService = mock(MemoryPageService.class);
+    private final MockMvc mockMvc = MockMvcBuilders
+            .standaloneSetup(new MemoryPageController(memoryPageService, new ObjectMapper()))
+            .build();
+
+    @Test
+    void batchAnswersEveryItemInItsPosition() throws Exception {
+        MemoryPageResponse page = new MemoryPageResponse();
+        page.setSlug("ana");
+        when(memoryPageService.createMemoryPages(argThat(requests -> requests.size() == 3))).thenReturn(List.of(
+                BatchCreateResult.created(0, page),
+                BatchCreateResult.invalid(1, Map.of("title", "Título não pode ser vazio.")),
+                BatchCreateResult.failed(2, "falha no INSERT")));
+
+        mockMvc.perform(post("/api/memory/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                                [{"title": "Ana", "dedicatedText": "ana"},
+                                 {"title": "", "dedicatedText": "bia"},
+                                 {"title": "Caio", "dedicatedText": "caio"}]
+                                """))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[0].page.slug").value("ana"))
+                .andExpect(jsonPath("$[1].status").value("INVALID"))
+                .andExpect(jsonPath("$[1].validationErrors.title").value("Título não pode ser vazio."))
+                .andExpect(jsonPath("$[2].index").value(2))
+                .andExpect(jsonPath("$[2].status").value("FAILED"));
+    }
+
+    @Test
+    void mediaRangeAnswersPartialContent() throws Exception {
+        givenMedia();
+
+        mockMvc.perform(get("/api/memory/ana/media/0").header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/16"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 4))
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().contentType("audio/mpeg"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "default-src 'none'; sandbox"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_DISPOSITION))
+                .andExpect(content().string("2345"));
+    }
+
+    @Test
+    void mediaOfAnUnlistedTypeIsServedAsAnAttachment() throws Exception {
+        givenMedia("image/svg+xml");
+
+        mockMvc.perform(get("/api/memory/ana/media/0"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment"))
+                .andExpect(header().string("X-Content-Type-Options", "nosniff"))
+                .andExpect(header().string("Content-Security-Policy", "default-src 'none'; sandbox"));
+    }
+
+    @Test
+    void mediaSuffixRangeAnswersTheLastBytes() throws Exception {
+        givenMedia();
+
+        mockMvc.perform(get("/api/memory/ana/media/0").header(HttpHeaders.RANGE, "bytes=-4"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 12-15/16"))
+                .andExpect(content().string("cdef"));
+    }
+
+    @Test
+    void mediaRangeBeyondTheEndIsNotSatisfiable() throws Exception {
+        givenMedia();
+
+        mockMvc.perform(get("/api/memory/ana/media/0").header(HttpHeaders.RANGE, "bytes=16-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */16"))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void mediaRangeWithAnotherIfRangeAnswersTheWholeObject() throws Exception {
+        givenMedia();
+
+        mockMvc.perform(get("/api/memory/ana/media/0")
+                        .header(HttpHeaders.RANGE, "bytes=2-5")
+                        .header(HttpHeaders.IF_RANGE, "\"musica-v0\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 16))
+                .andExpect(content().string(MUSIC));
+    }
+
+    @Test
+    void mediaWithMatchingETagIsNotModified() throws Exception {
+        givenMedia();
+
+        mockMvc.perform(get("/api/memory/ana/media/0")
+                        .header(HttpHeaders.IF_NONE_MATCH, ETAG)
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(content().string(""));
+    }
+
+    private void givenMedia() throws IOException {
+        givenMedia("audio/mpeg");
+    }
+
+    // Cada requisição recebe um canal novo: o controller fecha o que abriu.
+    private void givenMedia(String contentType) throws IOException {
+        Path file = Files.writeString(directory.resolve("musica.media"), MUSIC, StandardCharsets.US_ASCII);
+        when(memoryPageService.openPageMedia("ana", 0)).thenAnswer(invocation ->
+                Optional.of(new ProxiedMedia(FileChannel.open(file), MUSIC.length(), contentType, ETAG)));
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.pp.memorysitebackend.exception;
+
+import br.com.pp.memorysitebackend.dto.ErrorResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+    private final ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("POST", "/api/memory"));
+
+    @Test
+    void uniqueViolationIsAConflict() {
+        ResponseEntity<ErrorResponse> response = handler.handleDataIntegrityViolationException(violation("23505"), request);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+    }
+
+    @Test
+    void otherIntegrityViolationsAreInternalErrors() {
+        for (String sqlState : new String[]{"23502", "23503", "22001"}) {
+            ResponseEntity<ErrorResponse> response = handler.handleDataIntegrityViolationException(violation(sqlState), request);
+
+            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState) {
+        return new DataIntegrityViolationException("falha no INSERT", new SQLException("violação", sqlState));
+    }
+}
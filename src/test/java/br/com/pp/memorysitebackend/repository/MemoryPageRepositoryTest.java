@@ -0,0 +1,51 @@
+package br.com.pp.memorysitebackend.repository;
+
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.service.SlugAllocator;
+import br.com.pp.memorysitebackend.support.PostgresRepositoryTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemoryPageRepositoryTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private MemoryPageRepository memoryPageRepository;
+
+    @Test
+    void findSlugsMatchingAnyBaseReturnsEachBaseAndItsSuffixes() {
+        savePages("ana", "ana-1", "ana-beatriz", "anabela", "bia-2", "caio");
+
+        List<String> slugs = memoryPageRepository.findSlugsMatchingAnyBase(
+                new String[]{"ana", "bia"}, new String[]{"ana-%", "bia-%"});
+
+        assertThat(slugs).containsExactlyInAnyOrder("ana", "ana-1", "ana-beatriz", "bia-2");
+    }
+
+    @Test
+    void batchSlugsSkipTheOnesAlreadyInTheDatabase() {
+        savePages("ana", "ana-1", "bia-1");
+        SlugAllocator slugAllocator = new SlugAllocator(memoryPageRepository, new SimpleMeterRegistry());
+
+        List<String> slugs = slugAllocator.generateUniqueSlugs(List.of("Ana", "Bia", "ana", "Caio"));
+
+        assertThat(slugs).containsExactly("ana-2", "bia", "ana-3", "caio");
+    }
+
+    private void savePages(String... slugs) {
+        for (String slug : slugs) {
+            MemoryPage page = new MemoryPage();
+            page.setSlug(slug);
+            page.setTitle("Para " + slug);
+            page.setDedicatedText(slug);
+            page.setLastModifiedDate(LocalDateTime.now());
+            memoryPageRepository.save(page);
+        }
+        memoryPageRepository.flush();
+    }
+}
@@ -0,0 +1,78 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.PageViewBucket;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import br.com.pp.memorysitebackend.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * O sketch gravado pela aplicação e unido pelo hll_merge do banco (upsert de page_view_stats) precisa ter o mesmo
+ * resultado que {@link HyperLogLog#merge}, já que a consulta por dia une as horas na aplicação.
+ */
+class HyperLogLogPostgresTest extends PostgresRepositoryTest {
+
+    private static final Instant HOUR = Instant.parse("2026-03-10T14:00:00Z");
+
+    @Autowired
+    private MemoryPageRepository memoryPageRepository;
+
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Test
+    void sqlMergeOfTwoInstancesMatchesTheJavaMerge() {
+        savePage("ana");
+        long[] visitors = random.longs(3_000).toArray();
+        HyperLogLog first = sketchOf(visitors, 0, 2_000);
+        HyperLogLog second = sketchOf(visitors, 1_000, 3_000);
+
+        memoryPageRepository.mergeViewStats(List.of(new PageViewBucket("ana", HOUR, 10, first.toByteArray())));
+        memoryPageRepository.mergeViewStats(List.of(new PageViewBucket("ana", HOUR, 5, second.toByteArray())));
+
+        List<PageViewBucket> stored = memoryPageRepository.findHourlyViewStats("ana", HOUR);
+        first.merge(second);
+        assertThat(stored).hasSize(1);
+        assertThat(stored.get(0).getViews()).isEqualTo(15);
+        assertThat(stored.get(0).getVisitorsSketch()).isEqualTo(first.toByteArray());
+        assertThat(HyperLogLog.wrap(stored.get(0).getVisitorsSketch()).estimate()).isEqualTo(first.estimate());
+    }
+
+    @Test
+    void retentionDeletesOnlyOlderHours() {
+        savePage("ana");
+        byte[] empty = new HyperLogLog().toByteArray();
+        memoryPageRepository.mergeViewStats(List.of(
+                new PageViewBucket("ana", HOUR.minusSeconds(3600), 1, empty),
+                new PageViewBucket("ana", HOUR, 1, empty),
+                new PageViewBucket("sem-pagina", HOUR, 1, empty)));
+
+        assertThat(memoryPageRepository.deleteViewStatsBefore(HOUR)).isEqualTo(1);
+        assertThat(memoryPageRepository.findHourlyViewStats("ana", Instant.EPOCH))
+                .extracting(PageViewBucket::getBucketStart).containsExactly(HOUR);
+    }
+
+    private static HyperLogLog sketchOf(long[] visitors, int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(visitors[i]);
+        }
+        return sketch;
+    }
+
+    private void savePage(String slug) {
+        MemoryPage page = new MemoryPage();
+        page.setSlug(slug);
+        page.setTitle("Para " + slug);
+        page.setDedicatedText(slug);
+        page.setLastModifiedDate(LocalDateTime.now());
+        memoryPageRepository.saveAndFlush(page);
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.pp.memorysitebackend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Test
+    void estimatesSmallAndLargeCardinalities() {
+        assertThat(sketchOf(10).estimate()).isEqualTo(10);
+        assertThat((double) sketchOf(100_000).estimate()).isCloseTo(100_000, within(100_000 * 0.05));
+    }
+
+    @Test
+    void repeatedVisitorsAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog();
+        long visitor = random.nextLong();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(visitor);
+        }
+        assertThat(sketch.estimate()).isEqualTo(1);
+    }
+
+    @Test
+    void mergeCountsTheUnionOfVisitors() {
+        long[] shared = random.longs(5_000).toArray();
+        HyperLogLog morning = new HyperLogLog();
+        HyperLogLog evening = new HyperLogLog();
+        for (long visitor : shared) {
+            morning.add(visitor);
+            evening.add(visitor);
+        }
+        random.longs(5_000).forEach(evening::add);
+
+        morning.merge(HyperLogLog.wrap(evening.toByteArray()));
+
+        assertThat((double) morning.estimate()).isCloseTo(10_000, within(10_000 * 0.05));
+    }
+
+    private HyperLogLog sketchOf(int distinct) {
+        HyperLogLog sketch = new HyperLogLog();
+        random.longs(distinct).forEach(sketch::add);
+        return sketch;
+    }
+}
@@ -0,0 +1,140 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.ImageVariant;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.repository.MediaObjectRepository;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import br.com.pp.memorysitebackend.support.InMemoryS3Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ImageDerivativeServiceTest {
+
+    private static final String API_URL = "https://example.supabase.co/storage/v1";
+    private static final String BUCKET = "memories";
+
+    private final InMemoryS3Client s3Client = new InMemoryS3Client();
+    private final StorageServiceImpl storageService = new StorageServiceImpl(s3Client, null, Runnable::run,
+            new PartBufferPool(DataSize.ofMegabytes(5), 1),
+            new MediaIndex(mock(MediaObjectRepository.class), new SimpleMeterRegistry()), API_URL, BUCKET, 1, Duration.ofMinutes(10));
+    private final ImageDerivativeService derivativeService = new ImageDerivativeService(storageService, Runnable::run,
+            null, null, mock(MemoryPageInvalidator.class), List.of(1280, 320, 640));
+
+    @Test
+    void generatesDownscaledJpegVariantsForEachConfiguredWidth() throws IOException {
+        String originalUrl = uploadImage(4000, 3000, "png");
+
+        List<ImageVariant> variants = derivativeService.generateDerivatives(originalUrl);
+
+        assertThat(variants).extracting(ImageVariant::getWidth).containsExactly(320, 640, 1280);
+        for (ImageVariant variant : variants) {
+            String key = variant.getUrl().substring(variant.getUrl().indexOf(BUCKET + "/") + BUCKET.length() + 1)
+                    .replace("%2F", "/");
+            InMemoryS3Client.StoredObject stored = s3Client.objects().get(key);
+            assertThat(stored.contentType()).isEqualTo("image/jpeg");
+            BufferedImage image = ImageIO.read(new ByteArrayInputStream(stored.content()));
+            assertThat(image.getWidth()).isEqualTo(variant.getWidth());
+            assertThat(image.getHeight()).isEqualTo(variant.getWidth() * 3 / 4);
+        }
+    }
+
+    @Test
+    void skipsWidthsNotSmallerThanTheOriginal() throws IOException {
+        String originalUrl = uploadImage(500, 400, "jpg");
+
+        List<ImageVariant> variants = derivativeService.generateDerivatives(originalUrl);
+
+        assertThat(variants).extracting(ImageVariant::getWidth).containsExactly(320);
+    }
+
+    @Test
+    void imagesOfTheSamePageFinishingTogetherKeepBothVariants() throws Exception {
+        String first = uploadImage(800, 600, "png");
+        String second = uploadImage(900, 600, "png");
+        AtomicReference<MemoryPage> stored = new AtomicReference<>(new MemoryPage());
+        stored.get().setSlug("aniversario");
+        stored.get().setImageUrls(List.of(first, second));
+
+        // Os dois workers leem a mesma versão da página antes de qualquer um gravar.
+        CountDownLatch bothLoaded = new CountDownLatch(2);
+        MemoryPageRepository memoryPageRepository = mock(MemoryPageRepository.class);
+        when(memoryPageRepository.findBySlug("aniversario")).thenAnswer(invocation -> {
+            MemoryPage page = copyOf(stored.get());
+            bothLoaded.countDown();
+            bothLoaded.await(5, TimeUnit.SECONDS);
+            return Optional.of(page);
+        });
+        when(memoryPageRepository.save(any())).thenAnswer(invocation -> {
+            MemoryPage page = invocation.getArgument(0);
+            synchronized (stored) {
+                if (stored.get().getVersion() != page.getVersion()) {
+                    throw new ObjectOptimisticLockingFailureException(MemoryPage.class, "aniversario");
+                }
+                page.setVersion(page.getVersion() + 1);
+                stored.set(copyOf(page));
+            }
+            return page;
+        });
+        TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        new ImageDerivativeService(storageService, executor, memoryPageRepository, transactionTemplate,
+                mock(MemoryPageInvalidator.class), List.of(320)).scheduleDerivatives("aniversario", List.of(first, second));
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(stored.get().getImageVariants()).containsOnlyKeys(first, second);
+        assertThat(stored.get().getVersion()).isEqualTo(2);
+    }
+
+    private static MemoryPage copyOf(MemoryPage page) {
+        MemoryPage copy = new MemoryPage();
+        copy.setSlug(page.getSlug());
+        copy.setImageUrls(new ArrayList<>(page.getImageUrls()));
+        copy.setImageVariants(new HashMap<>(page.getImageVariants()));
+        copy.setVersion(page.getVersion());
+        return copy;
+    }
+
+    private String uploadImage(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width / 2, height);
+        graphics.dispose();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ImageIO.write(image, format, output);
+        MockMultipartFile file = new MockMultipartFile("files", "foto." + format, "image/" + format, output.toByteArray());
+        return storageService.uploadImages("aniversario", List.of(file)).get(0);
+    }
+}
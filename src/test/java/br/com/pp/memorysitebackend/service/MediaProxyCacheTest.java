@@ -0,0 +1,135 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.ProxiedMedia;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class MediaProxyCacheTest {
+
+    private static final byte[] MUSIC = "conteudo-da-musica".getBytes();
+
+    @TempDir
+    Path directory;
+
+    private final StorageService storageService = mock(StorageService.class);
+    private final AtomicInteger downloads = new AtomicInteger();
+
+    @Test
+    void concurrentRequestsForTheSameObjectShareOneDownload() throws Exception {
+        when(storageService.downloadObject(eq("music/a.mp3"), any())).thenAnswer(invocation -> {
+            downloads.incrementAndGet();
+            Thread.sleep(200);
+            Files.write(invocation.getArgument(1, Path.class), MUSIC);
+            return Optional.of("audio/mpeg");
+        });
+        MediaProxyCache cache = new MediaProxyCache(storageService, true, directory, DataSize.ofMegabytes(1));
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<byte[]>> reads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                reads.add(executor.submit(() -> read(cache.open("music/a.mp3").orElseThrow())));
+            }
+            for (Future<byte[]> read : reads) {
+                assertThat(read.get()).isEqualTo(MUSIC);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(downloads).hasValue(1);
+    }
+
+    @Test
+    void missingObjectsAreNotCached() throws IOException {
+        when(storageService.downloadObject(eq("music/removida.mp3"), any())).thenAnswer(invocation -> {
+            downloads.incrementAndGet();
+            return Optional.empty();
+        });
+        MediaProxyCache cache = new MediaProxyCache(storageService, true, directory, DataSize.ofMegabytes(1));
+
+        assertThat(cache.open("music/removida.mp3")).isEmpty();
+        assertThat(cache.open("music/removida.mp3")).isEmpty();
+        assertThat(downloads).hasValue(2);
+    }
+
+    @Test
+    void objectsLargerThanTheCacheAreServedFromPerRequestFiles() throws IOException {
+        byte[] album = new byte[3 * 1024];
+        Arrays.fill(album, (byte) 7);
+        when(storageService.downloadObject(eq("music/album.flac"), any())).thenAnswer(invocation -> {
+            downloads.incrementAndGet();
+            Files.write(invocation.getArgument(1, Path.class), album);
+            return Optional.of("audio/flac");
+        });
+        MediaProxyCache cache = new MediaProxyCache(storageService, true, directory, DataSize.ofKilobytes(2));
+
+        ProxiedMedia first = cache.open("music/album.flac").orElseThrow();
+        ProxiedMedia second = cache.open("music/album.flac").orElseThrow();
+
+        assertThat(read(first)).isEqualTo(album);
+        assertThat(read(second)).isEqualTo(album);
+        assertThat(downloads).hasValue(2);
+        // Cada cópia é apagada com o canal (no Linux, já ao abrir).
+        assertThat(cachedFiles()).isEmpty();
+    }
+
+    @Test
+    void instancesSharingTheDirectoryKeepTheirOwnFiles() throws IOException {
+        when(storageService.downloadObject(eq("music/a.mp3"), any())).thenAnswer(invocation -> {
+            Files.write(invocation.getArgument(1, Path.class), MUSIC);
+            return Optional.of("audio/mpeg");
+        });
+        Path foreign = Files.write(directory.resolve("1.media"), MUSIC);
+        MediaProxyCache first = new MediaProxyCache(storageService, true, directory, DataSize.ofMegabytes(1));
+        MediaProxyCache second = new MediaProxyCache(storageService, true, directory, DataSize.ofMegabytes(1));
+        read(first.open("music/a.mp3").orElseThrow());
+        read(second.open("music/a.mp3").orElseThrow());
+
+        assertThat(cachedFiles()).hasSize(2);
+
+        first.deleteOnShutdown();
+
+        assertThat(foreign).exists();
+        assertThat(cachedFiles()).hasSize(1);
+        assertThat(read(second.open("music/a.mp3").orElseThrow())).isEqualTo(MUSIC);
+    }
+
+    private List<Path> cachedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".media"))
+                    .filter(file -> !file.getParent().equals(directory))
+                    .toList();
+        }
+    }
+
+    private static byte[] read(ProxiedMedia media) throws IOException {
+        try (FileChannel channel = media.getChannel()) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) media.getSize());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            }
+            return buffer.array();
+        }
+    }
+}
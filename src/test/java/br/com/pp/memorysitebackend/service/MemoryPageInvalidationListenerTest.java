@@ -0,0 +1,80 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.support.PostgresRepositoryTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// Sem a transação do teste: o NOTIFY só é entregue no commit.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MemoryPageInvalidationListenerTest extends PostgresRepositoryTest {
+
+    // O LISTEN só vale depois do commit: a conexão precisa ter voltado a ficar ociosa.
+    private static final String LISTENING_BACKENDS_SQL = "SELECT count(*) FROM pg_stat_activity WHERE state = 'idle' AND query = 'LISTEN "
+            + MemoryPageInvalidator.CHANNEL + "'";
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final MemoryPageInvalidator invalidator = mock(MemoryPageInvalidator.class);
+    private MemoryPageInvalidationListener listener;
+
+    @BeforeEach
+    void startListener() throws InterruptedException {
+        listener = new MemoryPageInvalidationListener(invalidator, dataSourceProperties,
+                Duration.ofMillis(100), Duration.ofMillis(100));
+        listener.start();
+        awaitListeningBackends(1);
+    }
+
+    @AfterEach
+    void stopListener() throws InterruptedException {
+        listener.stop();
+        // A conexão do listener deste teste não pode ser confundida com a do próximo.
+        awaitListeningBackends(0);
+    }
+
+    @Test
+    void appliesNotificationsPublishedByOtherConnections() {
+        jdbcTemplate.execute("NOTIFY " + MemoryPageInvalidator.CHANNEL + ", 'outra-instancia:updated:7:ana'");
+
+        verify(invalidator, timeout(5000)).applyNotification("outra-instancia:updated:7:ana");
+        verify(invalidator, never()).evictAll();
+    }
+
+    @Test
+    void reconnectsAndEvictsEverythingAfterLosingTheConnection() throws InterruptedException {
+        jdbcTemplate.queryForList("SELECT pg_terminate_backend(pid) FROM pg_stat_activity WHERE query = 'LISTEN "
+                + MemoryPageInvalidator.CHANNEL + "'");
+
+        // Notificações do intervalo sem conexão se perderam: os caches locais são descartados por inteiro.
+        verify(invalidator, timeout(5000)).evictAll();
+        awaitListeningBackends(1);
+        jdbcTemplate.execute("NOTIFY " + MemoryPageInvalidator.CHANNEL + ", 'outra-instancia:deleted:7:ana'");
+        verify(invalidator, timeout(5000)).applyNotification("outra-instancia:deleted:7:ana");
+    }
+
+    private void awaitListeningBackends(long expected) throws InterruptedException {
+        Instant deadline = Instant.now().plusSeconds(5);
+        while (jdbcTemplate.queryForObject(LISTENING_BACKENDS_SQL, Long.class) != expected) {
+            assertThat(Instant.now()).isBefore(deadline);
+            Thread.sleep(20);
+        }
+    }
+}
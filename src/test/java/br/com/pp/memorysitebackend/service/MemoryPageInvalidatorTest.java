@@ -0,0 +1,167 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import br.com.pp.memorysitebackend.support.PostgresRepositoryTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Sem a transação do teste: o NOTIFY só é entregue no commit.
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class MemoryPageInvalidatorTest extends PostgresRepositoryTest {
+
+    @Autowired
+    private MemoryPageRepository memoryPageRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private CacheManager hibernateCacheManager;
+    @Autowired
+    private DataSource dataSource;
+
+    private final MemoryPageCache memoryPageCache = new MemoryPageCache(100, Duration.ofMinutes(10));
+    private final PageSnapshotStore pageSnapshotStore = mock(PageSnapshotStore.class);
+    private final TrendingTracker trendingTracker = mock(TrendingTracker.class);
+    private SessionFactory sessionFactory;
+    private MemoryPageInvalidator invalidator;
+    private MemoryPage page;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        invalidator = new MemoryPageInvalidator(memoryPageCache, pageSnapshotStore, trendingTracker, jdbcTemplate,
+                entityManagerFactory, new SimpleMeterRegistry());
+        page = transactionTemplate.execute(status -> {
+            MemoryPage newPage = new MemoryPage();
+            newPage.setSlug("ana");
+            newPage.setTitle("Para Ana");
+            newPage.setDedicatedText("ana");
+            newPage.setLastModifiedDate(LocalDateTime.now());
+            return memoryPageRepository.save(newPage);
+        });
+    }
+
+    @AfterEach
+    void deletePages() {
+        jdbcTemplate.update("DELETE FROM memory_pages");
+    }
+
+    @Test
+    void changeFromAnotherInstanceEvictsEveryLocalCopy() {
+        loadIntoCaches();
+
+        invalidator.applyNotification("outra-instancia:updated:" + page.getId() + ":ana");
+
+        assertThat(memoryPageCache.getIfPresent("ana")).isEmpty();
+        assertThat(sessionFactory.getCache().containsEntity(MemoryPage.class, page.getId())).isFalse();
+        verify(pageSnapshotStore).evict("ana");
+        // Numa alteração o slug continua apontando para o mesmo id.
+        assertThat(cachedSlugs()).isPositive();
+        verify(trendingTracker, never()).remove("ana");
+    }
+
+    @Test
+    void deletionFromAnotherInstanceAlsoDropsSlugResolution() {
+        loadIntoCaches();
+
+        invalidator.applyNotification("outra-instancia:deleted:" + page.getId() + ":ana");
+
+        assertThat(sessionFactory.getCache().containsEntity(MemoryPage.class, page.getId())).isFalse();
+        assertThat(cachedSlugs()).isZero();
+        verify(trendingTracker).remove("ana");
+    }
+
+    @Test
+    void deletionLeavesTheRankingOnlyOnCommit() {
+        transactionTemplate.executeWithoutResult(status -> {
+            invalidator.invalidateDeletedAfterCommit(page);
+            status.setRollbackOnly();
+        });
+        verify(trendingTracker, never()).remove("ana");
+
+        transactionTemplate.executeWithoutResult(status -> invalidator.invalidateDeletedAfterCommit(page));
+        verify(trendingTracker).remove("ana");
+    }
+
+    @Test
+    void notificationIsSentOnCommitAndIgnoredByItsOwnInstance() throws Exception {
+        try (Connection listener = dataSource.getConnection()) {
+            try (Statement statement = listener.createStatement()) {
+                statement.execute("LISTEN " + MemoryPageInvalidator.CHANNEL);
+            }
+            PGConnection pgListener = listener.unwrap(PGConnection.class);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                invalidator.invalidateAfterCommit(page);
+                status.setRollbackOnly();
+            });
+            assertThat(pgListener.getNotifications(200)).isNullOrEmpty();
+
+            transactionTemplate.executeWithoutResult(status -> invalidator.invalidateAfterCommit(page));
+            PGNotification[] notifications = pgListener.getNotifications(5000);
+            assertThat(notifications).hasSize(1);
+            assertThat(notifications[0].getParameter()).endsWith(":updated:" + page.getId() + ":ana");
+
+            loadIntoCaches();
+            invalidator.applyNotification(notifications[0].getParameter());
+            assertThat(memoryPageCache.getIfPresent("ana")).isPresent();
+            assertThat(sessionFactory.getCache().containsEntity(MemoryPage.class, page.getId())).isTrue();
+        }
+    }
+
+    @Test
+    void evictAllDropsEveryPage() {
+        loadIntoCaches();
+
+        invalidator.evictAll();
+
+        assertThat(memoryPageCache.getIfPresent("ana")).isEmpty();
+        assertThat(sessionFactory.getCache().containsEntity(MemoryPage.class, page.getId())).isFalse();
+        assertThat(cachedSlugs()).isZero();
+        verify(pageSnapshotStore, never()).evict("ana");
+    }
+
+    private void loadIntoCaches() {
+        Optional<MemoryPageResponse> response = memoryPageCache.get("ana",
+                slug -> memoryPageRepository.findBySlug(slug).map(MemoryPageServiceImpl::mapToDto));
+        assertThat(response).isPresent();
+        assertThat(sessionFactory.getCache().containsEntity(MemoryPage.class, page.getId())).isTrue();
+    }
+
+    private long cachedSlugs() {
+        Cache<Object, Object> slugs = hibernateCacheManager.getCache("memoryPageSlugs");
+        return StreamSupport.stream(slugs.spliterator(), false).count();
+    }
+}
@@ -0,0 +1,231 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.BatchCreateResult;
+import br.com.pp.memorysitebackend.dto.CreateMemoryPageRequest;
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.dto.MusicUploadResponse;
+import br.com.pp.memorysitebackend.dto.StartMusicUploadRequest;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.repository.MediaObjectRepository;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import br.com.pp.memorysitebackend.support.InMemoryS3Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class MemoryPageServiceImplTest {
+
+    @Mock
+    private MemoryPageRepository memoryPageRepository;
+    @Mock
+    private SlugAllocator slugAllocator;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+    @Mock
+    private MediaIndex mediaIndex;
+    @Mock
+    private PageSnapshotStore pageSnapshotStore;
+    @Mock
+    private StorageGarbageCollector storageGarbageCollector;
+    @Mock
+    private MemoryPageInvalidator memoryPageInvalidator;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private final InMemoryS3Client s3Client = new InMemoryS3Client();
+    @Spy
+    private StorageServiceImpl storageService = new StorageServiceImpl(s3Client, null, Runnable::run,
+            new PartBufferPool(DataSize.ofMegabytes(5), 1),
+            new MediaIndex(mock(MediaObjectRepository.class), new SimpleMeterRegistry()),
+            "https://example.supabase.co/storage/v1", "memories", 1, Duration.ofMinutes(10));
+
+    @InjectMocks
+    private MemoryPageServiceImpl memoryPageService;
+
+    @BeforeEach
+    void runTransactionsInline() {
+        lenient().when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+
+    @Test
+    void slugTakenConcurrentlyIsRetriedWithANewSlug() {
+        when(slugAllocator.sanitizeSlug(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(slugAllocator.generateUniqueSlug("ana")).thenReturn("ana", "ana-1");
+        when(memoryPageRepository.saveAndFlush(any()))
+                .thenThrow(violation("23505"))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        MemoryPageResponse response = memoryPageService.createMemoryPage(request("ana"));
+
+        assertThat(response.getSlug()).isEqualTo("ana-1");
+        verify(slugAllocator).recordConstraintCollision();
+        verify(slugAllocator).recordAttempts(2);
+    }
+
+    @Test
+    void otherIntegrityViolationsAreNotRetried() {
+        when(slugAllocator.sanitizeSlug(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(slugAllocator.generateUniqueSlug("ana")).thenReturn("ana");
+        when(memoryPageRepository.saveAndFlush(any())).thenThrow(violation("23502"));
+
+        assertThatThrownBy(() -> memoryPageService.createMemoryPage(request("ana")))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        verify(memoryPageRepository, times(1)).saveAndFlush(any(MemoryPage.class));
+    }
+
+    @Test
+    void batchCreatesValidItemsTogetherAndReportsInvalidOnes() {
+        when(slugAllocator.sanitizeSlug(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(slugAllocator.generateUniqueSlugs(List.of("ana", "caio"))).thenReturn(List.of("ana", "caio"));
+        when(memoryPageRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        CreateMemoryPageRequest invalid = request("bia");
+        invalid.setTitle("");
+
+        List<BatchCreateResult> results = memoryPageService.createMemoryPages(List.of(request("ana"), invalid, request("caio")));
+
+        assertThat(results).extracting(BatchCreateResult::getStatus).containsExactly(
+                BatchCreateResult.Status.CREATED, BatchCreateResult.Status.INVALID, BatchCreateResult.Status.CREATED);
+        assertThat(results.get(0).getPage().getSlug()).isEqualTo("ana");
+        assertThat(results.get(1).getValidationErrors()).containsKey("title");
+        assertThat(results.get(2).getPage().getSlug()).isEqualTo("caio");
+        verify(memoryPageRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void otherIntegrityViolationInBatchFallsBackToOnePageAtATime() {
+        when(slugAllocator.sanitizeSlug(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(slugAllocator.generateUniqueSlugs(any())).thenReturn(List.of("ana", "bia"));
+        when(slugAllocator.generateUniqueSlug(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(memoryPageRepository.saveAll(any())).thenThrow(violation("22001"));
+        when(memoryPageRepository.saveAndFlush(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0))
+                .thenThrow(violation("22001"));
+
+        List<BatchCreateResult> results = memoryPageService.createMemoryPages(List.of(request("ana"), request("bia")));
+
+        assertThat(results).extracting(BatchCreateResult::getStatus)
+                .containsExactly(BatchCreateResult.Status.CREATED, BatchCreateResult.Status.FAILED);
+        assertThat(results.get(0).getPage().getSlug()).isEqualTo("ana");
+        // Violação que não é de slug: o lote não é repetido.
+        verify(memoryPageRepository, times(1)).saveAll(any());
+        verify(slugAllocator, never()).recordConstraintCollision();
+    }
+
+    @Test
+    void musicUploadedInPartsIsAssembledAndAssociatedToThePage() throws IOException {
+        MemoryPage page = new MemoryPage();
+        page.setSlug("ana");
+        when(memoryPageRepository.existsBySlug("ana")).thenReturn(true);
+        when(memoryPageRepository.findBySlug("ana")).thenReturn(Optional.of(page));
+
+        MusicUploadResponse upload = memoryPageService.startMusicUpload("ana", musicRequest());
+        memoryPageService.uploadMusicPart("ana", upload.getUploadId(), upload.getObjectKey(), 2, content("-fim"));
+        memoryPageService.uploadMusicPart("ana", upload.getUploadId(), upload.getObjectKey(), 1, content("inicio"));
+        String publicUrl = memoryPageService.completeMusicUpload("ana", upload.getUploadId(), upload.getObjectKey());
+
+        assertThat(new String(s3Client.objects().get(upload.getObjectKey()).content())).isEqualTo("inicio-fim");
+        assertThat(s3Client.multipartUploads()).isEmpty();
+        assertThat(page.getMusicUrl()).isEqualTo(publicUrl);
+    }
+
+    @Test
+    void abortDiscardsTheUpload() throws IOException {
+        when(memoryPageRepository.existsBySlug("ana")).thenReturn(true);
+
+        MusicUploadResponse upload = memoryPageService.startMusicUpload("ana", musicRequest());
+        memoryPageService.uploadMusicPart("ana", upload.getUploadId(), upload.getObjectKey(), 1, content("inicio"));
+        memoryPageService.abortMusicUpload("ana", upload.getUploadId(), upload.getObjectKey());
+
+        assertThat(s3Client.multipartUploads()).isEmpty();
+        assertThat(s3Client.objects()).isEmpty();
+    }
+
+    @Test
+    void uploadOfAnotherPageCannotBeWrittenOrAborted() {
+        when(memoryPageRepository.existsBySlug("ana")).thenReturn(true);
+        when(memoryPageRepository.existsBySlug("bia")).thenReturn(true);
+        MusicUploadResponse anaUpload = memoryPageService.startMusicUpload("ana", musicRequest());
+        MusicUploadResponse biaUpload = memoryPageService.startMusicUpload("bia", musicRequest());
+
+        // Chave de outra página.
+        assertThatThrownBy(() -> memoryPageService.abortMusicUpload("bia", anaUpload.getUploadId(), anaUpload.getObjectKey()))
+                .isInstanceOf(IllegalArgumentException.class);
+        // Chave da página, mas uploadId de outra.
+        assertThatThrownBy(() -> memoryPageService.uploadMusicPart("bia", anaUpload.getUploadId(), biaUpload.getObjectKey(), 1, content("x")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> memoryPageService.abortMusicUpload("bia", anaUpload.getUploadId(), biaUpload.getObjectKey()))
+                .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(s3Client.multipartUploads()).containsKeys(anaUpload.getUploadId(), biaUpload.getUploadId());
+    }
+
+    @Test
+    void partsAreRejectedOnceThePageIsDeleted() {
+        when(memoryPageRepository.existsBySlug("ana")).thenReturn(true, false);
+        MusicUploadResponse upload = memoryPageService.startMusicUpload("ana", musicRequest());
+
+        assertThatThrownBy(() -> memoryPageService.uploadMusicPart("ana", upload.getUploadId(), upload.getObjectKey(), 1, content("x")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("not found");
+    }
+
+    private static StartMusicUploadRequest musicRequest() {
+        StartMusicUploadRequest request = new StartMusicUploadRequest();
+        request.setFileName("musica.mp3");
+        request.setContentType("audio/mpeg");
+        return request;
+    }
+
+    private static ByteArrayInputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes());
+    }
+
+    private static CreateMemoryPageRequest request(String dedicatedText) {
+        CreateMemoryPageRequest request = new CreateMemoryPageRequest();
+        request.setTitle("Para você");
+        request.setDedicatedText(dedicatedText);
+        return request;
+    }
+
+    private static DataIntegrityViolationException violation(String sqlState) {
+        return new DataIntegrityViolationException("falha no INSERT", new SQLException("violação", sqlState));
+    }
+}
@@ -0,0 +1,210 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PageSnapshotStoreTest {
+
+    private static final Duration MAX_AGE = Duration.ofMinutes(1);
+    private static final Duration MIN_AGE = Duration.ofHours(1);
+
+    @TempDir
+    Path directory;
+
+    private final ObjectMapper objectMapper = spy(new ObjectMapper().findAndRegisterModules());
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-10T14:20:00Z"));
+
+    @Test
+    void servesOnlyTheSnapshotOfTheRequestedVersion() throws IOException {
+        PageSnapshotStore store = newStore();
+        store.writeAfterCommit(() -> page("ana", 3));
+
+        assertThat(store.open("ana", 4, false)).isEmpty();
+        try (FileChannel channel = store.open("ana", 3, false).orElseThrow()) {
+            assertThat(read(channel)).contains("\"version\":3");
+        }
+    }
+
+    @Test
+    void snapshotsOlderThanMaxAgeAreNotServed() throws IOException {
+        PageSnapshotStore store = newStore();
+        store.writeAfterCommit(() -> page("ana", 1));
+
+        clock.advance(MAX_AGE);
+        store.open("ana", 1, true).orElseThrow().close();
+        clock.advance(Duration.ofSeconds(1));
+        assertThat(store.open("ana", 1, true)).isEmpty();
+    }
+
+    @Test
+    void evictRemovesTheSnapshotAndItsFiles() throws Exception {
+        PageSnapshotStore store = newStore();
+        store.writeAfterCommit(() -> page("ana", 1));
+        assertThat(snapshotFiles()).hasSize(2);
+
+        store.evict("ana");
+
+        assertThat(store.open("ana", 1, false)).isEmpty();
+        awaitSnapshotFiles(0);
+    }
+
+    @Test
+    void replacedFilesAreDeletedWhileAnOpenChannelKeepsReading() throws Exception {
+        PageSnapshotStore store = newStore();
+        store.writeAfterCommit(() -> page("ana", 1));
+        List<Path> oldFiles = snapshotFiles();
+
+        try (FileChannel channel = store.open("ana", 1, false).orElseThrow()) {
+            store.writeAfterCommit(() -> page("ana", 2));
+            awaitSnapshotFiles(2);
+
+            assertThat(oldFiles).noneMatch(Files::exists);
+            assertThat(read(channel)).contains("\"version\":1");
+        }
+        try (FileChannel channel = store.open("ana", 2, false).orElseThrow()) {
+            assertThat(read(channel)).contains("\"version\":2");
+        }
+    }
+
+    @Test
+    void concurrentReadsOfASettledPageWriteItsSnapshotOnce() throws Exception {
+        PageSnapshotStore store = newStore();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(objectMapper).writeValueAsBytes(any());
+        MemoryPageResponse settled = page("ana", 1);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> first = executor.submit(() -> store.refreshIfSettled(settled));
+            assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+            store.refreshIfSettled(settled);
+            release.countDown();
+            first.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        store.refreshIfSettled(settled);
+
+        verify(objectMapper, times(1)).writeValueAsBytes(any());
+        assertThat(store.open("ana", 1, false)).isPresent().get().satisfies(FileChannel::close);
+    }
+
+    @Test
+    void instancesSharingTheDirectoryKeepTheirOwnFiles() throws IOException {
+        Path foreign = Files.writeString(directory.resolve("ana.1.1.json.snapshot"), "de outra instância");
+        PageSnapshotStore first = newStore();
+        PageSnapshotStore second = newStore();
+        first.writeAfterCommit(() -> page("ana", 1));
+        second.writeAfterCommit(() -> page("ana", 1));
+
+        assertThat(foreign).exists();
+        assertThat(snapshotFiles()).hasSize(4);
+
+        first.deleteOnShutdown();
+
+        assertThat(foreign).exists();
+        assertThat(snapshotFiles()).hasSize(2);
+        try (FileChannel channel = second.open("ana", 1, false).orElseThrow()) {
+            assertThat(read(channel)).contains("\"slug\":\"ana\"");
+        }
+    }
+
+    private PageSnapshotStore newStore() throws IOException {
+        return new PageSnapshotStore(objectMapper, new SimpleMeterRegistry(), true, directory, 100, MAX_AGE, MIN_AGE, clock);
+    }
+
+    // Página com data alvo passada e sem edição há mais de min-age.
+    private MemoryPageResponse page(String slug, long version) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return new MemoryPageResponse(1L, slug, "Título", "Texto", List.of(), Map.of(), null,
+                now.minusDays(1), now.minusDays(2), 0, version, now.minus(MIN_AGE).minusMinutes(1));
+    }
+
+    private List<Path> snapshotFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(".snapshot"))
+                    .filter(file -> !file.getParent().equals(directory))
+                    .toList();
+        }
+    }
+
+    // Os arquivos substituídos ou despejados são apagados pelo listener de remoção, fora da thread que chamou.
+    private void awaitSnapshotFiles(int expected) throws Exception {
+        Instant deadline = Instant.now().plusSeconds(5);
+        while (snapshotFiles().size() != expected) {
+            assertThat(Instant.now()).isBefore(deadline);
+            Thread.sleep(20);
+        }
+    }
+
+    private static String read(FileChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+        }
+        return new String(buffer.array(), StandardCharsets.UTF_8);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
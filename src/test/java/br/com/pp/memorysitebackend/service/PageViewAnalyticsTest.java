@@ -0,0 +1,140 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.PageViewBucket;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PageViewAnalyticsTest {
+
+    private static final ZoneId SAO_PAULO = ZoneId.of("America/Sao_Paulo");
+
+    private final MemoryPageRepository memoryPageRepository = mock(MemoryPageRepository.class);
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-10T14:20:00Z"));
+    private final PageViewAnalytics analytics = new PageViewAnalytics(memoryPageRepository, Duration.ofDays(400), clock);
+
+    @Test
+    void flushWritesOneBucketPerPageAndHour() {
+        analytics.record("ana", "visitante-1");
+        analytics.record("ana", "visitante-1");
+        analytics.record("ana", "visitante-2");
+        analytics.record("bia", "visitante-1");
+        clock.advance(Duration.ofHours(1));
+        analytics.record("ana", "visitante-3");
+
+        analytics.flush();
+
+        assertThat(flushed(1)).extracting(PageViewBucket::getSlug, PageViewBucket::getBucketStart, PageViewBucket::getViews,
+                        bucket -> HyperLogLog.wrap(bucket.getVisitorsSketch()).estimate())
+                .containsExactly(
+                        tuple("ana", Instant.parse("2026-03-10T14:00:00Z"), 3L, 2L),
+                        tuple("ana", Instant.parse("2026-03-10T15:00:00Z"), 1L, 1L),
+                        tuple("bia", Instant.parse("2026-03-10T14:00:00Z"), 1L, 1L));
+    }
+
+    @Test
+    void failedFlushRestoresTheBucketsForTheNextOne() {
+        analytics.record("ana", "visitante-1");
+        doThrow(new IllegalStateException("banco fora")).doNothing().when(memoryPageRepository).mergeViewStats(any());
+        analytics.flush();
+
+        // Visualizações da mesma hora chegadas depois da falha somam ao agregado restaurado.
+        analytics.record("ana", "visitante-1");
+        analytics.record("ana", "visitante-2");
+        analytics.flush();
+
+        assertThat(flushed(2).subList(1, 2)).extracting(PageViewBucket::getViews,
+                        bucket -> HyperLogLog.wrap(bucket.getVisitorsSketch()).estimate())
+                .containsExactly(tuple(3L, 2L));
+    }
+
+    @Test
+    void flushWithNothingPendingDoesNotTouchTheDatabase() {
+        analytics.record("ana", "visitante-1");
+        analytics.flush();
+        analytics.flush();
+
+        verify(memoryPageRepository, times(1)).mergeViewStats(any());
+    }
+
+    @Test
+    void dailyStatsJoinTheHoursOfEachLocalDay() {
+        // 02:00 UTC ainda é o dia 9 em São Paulo (UTC-3).
+        when(memoryPageRepository.findHourlyViewStats("ana", Instant.parse("2026-03-09T03:00:00Z"))).thenReturn(List.of(
+                hour("2026-03-09T15:00:00Z", 2, 1, 2),
+                hour("2026-03-10T02:00:00Z", 3, 2, 3),
+                hour("2026-03-10T14:00:00Z", 1, 3)));
+
+        List<PageViewBucket> days = analytics.findDailyViewStats("ana", Instant.parse("2026-03-09T03:00:00Z"), SAO_PAULO);
+
+        assertThat(days).extracting(PageViewBucket::getBucketStart, PageViewBucket::getViews,
+                        bucket -> HyperLogLog.wrap(bucket.getVisitorsSketch()).estimate())
+                .containsExactly(
+                        tuple(Instant.parse("2026-03-09T03:00:00Z"), 5L, 3L),
+                        tuple(Instant.parse("2026-03-10T03:00:00Z"), 1L, 1L));
+    }
+
+    private List<PageViewBucket> flushed(int flushes) {
+        ArgumentCaptor<List<PageViewBucket>> captor = ArgumentCaptor.captor();
+        verify(memoryPageRepository, times(flushes)).mergeViewStats(captor.capture());
+        return captor.getAllValues().stream()
+                .map(buckets -> buckets.stream()
+                        .sorted(Comparator.comparing(PageViewBucket::getSlug).thenComparing(PageViewBucket::getBucketStart))
+                        .toList())
+                .flatMap(List::stream)
+                .toList();
+    }
+
+    private static PageViewBucket hour(String start, long views, long... visitors) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (long visitor : visitors) {
+            sketch.add(visitor * 0x9E3779B97F4A7C15L);
+        }
+        return new PageViewBucket("ana", Instant.parse(start), views, sketch.toByteArray());
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
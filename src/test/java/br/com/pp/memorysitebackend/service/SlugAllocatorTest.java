@@ -0,0 +1,49 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SlugAllocatorTest {
+
+    private final MemoryPageRepository memoryPageRepository = mock(MemoryPageRepository.class);
+    private final SlugAllocator slugAllocator = new SlugAllocator(memoryPageRepository, new SimpleMeterRegistry());
+
+    @Test
+    void freeBaseIsUsedAsIs() {
+        when(memoryPageRepository.findSlugsMatchingBase("feliz-aniversario", "feliz-aniversario-%")).thenReturn(List.of());
+
+        assertThat(slugAllocator.generateUniqueSlug("Feliz Aniversário!")).isEqualTo("feliz-aniversario");
+    }
+
+    @Test
+    void collisionTakesTheFirstFreeSuffix() {
+        when(memoryPageRepository.findSlugsMatchingBase("ana", "ana-%"))
+                .thenReturn(List.of("ana", "ana-1", "ana-2", "ana-4", "ana-beatriz"));
+
+        assertThat(slugAllocator.generateUniqueSlug("Ana")).isEqualTo("ana-3");
+    }
+
+    @Test
+    void reservedSlugGetsASuffix() {
+        when(memoryPageRepository.findSlugsMatchingBase("trending", "trending-%")).thenReturn(List.of());
+
+        assertThat(slugAllocator.generateUniqueSlug("trending")).isEqualTo("trending-1");
+    }
+
+    @Test
+    void batchGivesDistinctSuffixesToRepeatedBases() {
+        when(memoryPageRepository.findSlugsMatchingAnyBase(any(), any())).thenReturn(List.of("ana", "ana-2"));
+
+        List<String> slugs = slugAllocator.generateUniqueSlugs(List.of("Ana", "Bia", "ana", "Ana"));
+
+        assertThat(slugs).containsExactly("ana-1", "bia", "ana-3", "ana-4");
+    }
+}
@@ -0,0 +1,168 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.entity.ImageVariant;
+import br.com.pp.memorysitebackend.entity.MemoryPage;
+import br.com.pp.memorysitebackend.entity.StorageDeletion;
+import br.com.pp.memorysitebackend.repository.MediaObjectRepository;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import br.com.pp.memorysitebackend.repository.StorageDeletionRepository;
+import br.com.pp.memorysitebackend.support.InMemoryS3Client;
+import br.com.pp.memorysitebackend.support.PostgresRepositoryTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class StorageGarbageCollectorTest extends PostgresRepositoryTest {
+
+    private static final Duration GRACE_PERIOD = Duration.ofHours(1);
+
+    @Autowired
+    private StorageDeletionRepository storageDeletionRepository;
+    @Autowired
+    private MediaObjectRepository mediaObjectRepository;
+    @Autowired
+    private MemoryPageRepository memoryPageRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    private final InMemoryS3Client s3Client = new InMemoryS3Client();
+    private final StorageServiceImpl storageService = new StorageServiceImpl(s3Client, null, Runnable::run,
+            new PartBufferPool(DataSize.ofMegabytes(5), 1),
+            new MediaIndex(mock(MediaObjectRepository.class), new SimpleMeterRegistry()),
+            "https://example.supabase.co/storage/v1", "memories", 1, Duration.ofMinutes(10));
+
+    private StorageDeletionRepository deletions;
+    private StorageGarbageCollector garbageCollector;
+
+    @BeforeEach
+    void setUp() {
+        deletions = mock(StorageDeletionRepository.class, delegatesTo(storageDeletionRepository));
+        garbageCollector = new StorageGarbageCollector(deletions, mediaObjectRepository, storageService,
+                transactionTemplate, new SimpleMeterRegistry(), 500, 10, GRACE_PERIOD, Duration.ofMinutes(5),
+                1_000_000, List.of("images/", "music/"));
+    }
+
+    @Test
+    void referencedObjectIsNeverDeletedEvenWhenQueued() {
+        String image = store("images/ana/foto.jpg", Instant.now());
+        String variant = store("images/ana/foto-320.jpg", Instant.now());
+        String unused = store("images/ana/antiga.jpg", Instant.now());
+        savePage("ana", List.of(image), Map.of(image, List.of(new ImageVariant(320, variant))));
+
+        garbageCollector.enqueue(List.of(image, variant, unused));
+        backdateQueue(GRACE_PERIOD.plusMinutes(1));
+        garbageCollector.sweep();
+
+        assertThat(s3Client.objects()).containsOnlyKeys("images/ana/foto.jpg", "images/ana/foto-320.jpg");
+        assertThat(storageDeletionRepository.count()).isZero();
+    }
+
+    @Test
+    void queuedObjectWaitsForTheGracePeriod() {
+        String unused = store("images/ana/antiga.jpg", Instant.now());
+
+        garbageCollector.enqueue(List.of(unused));
+        garbageCollector.sweep();
+
+        assertThat(s3Client.objects()).containsKey("images/ana/antiga.jpg");
+        assertThat(storageDeletionRepository.findById("images/ana/antiga.jpg")).isPresent();
+    }
+
+    @Test
+    void failedDeletionIsRetriedAfterTheRetryDelayWithoutAnotherGracePeriod() {
+        String unused = store("images/ana/antiga.jpg", Instant.now());
+        garbageCollector.enqueue(List.of(unused));
+        backdateQueue(GRACE_PERIOD.plusMinutes(1));
+        LocalDateTime enqueuedAt = queued("images/ana/antiga.jpg").getEnqueuedAt();
+
+        s3Client.setFailingDeletes(key -> true);
+        garbageCollector.sweep();
+        StorageDeletion failed = queued("images/ana/antiga.jpg");
+        assertThat(failed.getAttempts()).isEqualTo(1);
+        assertThat(failed.getEnqueuedAt()).isEqualTo(enqueuedAt);
+
+        // Antes da espera, a entrada não é reivindicada de novo.
+        s3Client.setFailingDeletes(key -> false);
+        garbageCollector.sweep();
+        assertThat(s3Client.objects()).containsKey("images/ana/antiga.jpg");
+        assertThat(queued("images/ana/antiga.jpg").getAttempts()).isEqualTo(1);
+
+        // Passada a espera (bem menor que a carência), a remoção é repetida.
+        jdbcTemplate.update("UPDATE storage_deletion_queue SET retry_after = retry_after - interval '6 minutes'");
+        garbageCollector.sweep();
+        assertThat(s3Client.objects()).isEmpty();
+        assertThat(storageDeletionRepository.count()).isZero();
+    }
+
+    @Test
+    void reconcileWalksEveryPageOfTheListingAndLoadsReferencesOnce() {
+        s3Client.setListPageSize(2);
+        Instant old = Instant.now().minus(GRACE_PERIOD.plusMinutes(1));
+        String image = store("images/ana/1.jpg", old);
+        String variant = store("images/ana/2.jpg", old);
+        store("images/ana/3.jpg", old);
+        store("images/ana/4.jpg", old);
+        store("images/ana/5.jpg", Instant.now());
+        String music = store("music/ana/musica.mp3", old);
+        MemoryPage page = savePage("ana", List.of(image), Map.of(image, List.of(new ImageVariant(320, variant))));
+        page.setMusicUrl(music);
+        memoryPageRepository.saveAndFlush(page);
+
+        garbageCollector.reconcile();
+
+        assertThat(storageDeletionRepository.findAll()).extracting(StorageDeletion::getObjectKey)
+                .containsExactlyInAnyOrder("images/ana/3.jpg", "images/ana/4.jpg");
+        verify(deletions, times(1)).findAllReferencedUrls();
+        verify(deletions, never()).findReferencedUrls(any());
+    }
+
+    private String store(String objectKey, Instant lastModified) {
+        s3Client.objects().put(objectKey, new InMemoryS3Client.StoredObject(new byte[]{1}, "image/jpeg", lastModified));
+        return storageService.publicUrlOf(objectKey);
+    }
+
+    private MemoryPage savePage(String slug, List<String> imageUrls, Map<String, List<ImageVariant>> imageVariants) {
+        MemoryPage page = new MemoryPage();
+        page.setSlug(slug);
+        page.setTitle("Para " + slug);
+        page.setDedicatedText(slug);
+        page.setImageUrls(imageUrls);
+        page.setImageVariants(imageVariants);
+        page.setLastModifiedDate(LocalDateTime.now());
+        return memoryPageRepository.saveAndFlush(page);
+    }
+
+    // A fila é alterada por SQL; limpar o contexto de persistência evita ler a entidade já carregada.
+    private StorageDeletion queued(String objectKey) {
+        entityManager.clear();
+        return storageDeletionRepository.findById(objectKey).orElseThrow();
+    }
+
+    private void backdateQueue(Duration age) {
+        jdbcTemplate.update("UPDATE storage_deletion_queue SET enqueued_at = enqueued_at - make_interval(secs => ?)",
+                (double) age.toSeconds());
+    }
+}
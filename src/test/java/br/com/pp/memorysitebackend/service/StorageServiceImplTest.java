@@ -0,0 +1,187 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.DirectUploadResponse;
+import br.com.pp.memorysitebackend.dto.MediaKind;
+import br.com.pp.memorysitebackend.entity.MediaObject;
+import br.com.pp.memorysitebackend.repository.MediaObjectRepository;
+import br.com.pp.memorysitebackend.support.InMemoryS3Client;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.multipart.MultipartFile;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.net.URI;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class StorageServiceImplTest {
+
+    private static final String API_URL = "https://example.supabase.co/storage/v1";
+    private static final String BUCKET = "memories";
+
+    private final InMemoryS3Client s3Client = new InMemoryS3Client();
+    private final Map<String, MediaObject> mediaObjects = new ConcurrentHashMap<>();
+    private MediaIndex mediaIndex;
+    private final S3Presigner presigner = S3Presigner.builder()
+            .region(Region.SA_EAST_1)
+            .endpointOverride(URI.create("https://example.supabase.co/storage/v1/s3"))
+            .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("chave", "segredo")))
+            .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+            .build();
+    private ExecutorService executor;
+    private StorageServiceImpl storageService;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(16);
+        mediaIndex = new MediaIndex(inMemoryMediaObjectRepository(), new SimpleMeterRegistry());
+        storageService = new StorageServiceImpl(s3Client, presigner, executor, new PartBufferPool(DataSize.ofMegabytes(5), 1), mediaIndex, API_URL, BUCKET, 7, Duration.ofMinutes(10));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        presigner.close();
+    }
+
+    @Test
+    void uploadImagesTakesAboutAsLongAsTheSlowestUpload() throws IOException {
+        List<MultipartFile> files = images(7);
+        Duration slowest = Duration.ofMillis(400);
+        s3Client.setPutLatency(call -> call.content().length == sizeOf(6) ? slowest : Duration.ofMillis(250));
+
+        long start = System.nanoTime();
+        List<String> urls = storageService.uploadImages("aniversario", files);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(urls).hasSize(7);
+        assertThat(urls.get(0)).isEqualTo(API_URL + "/object/public/" + BUCKET + "/images%2F" + sha256(new byte[sizeOf(0)]) + ".jpg");
+        assertThat(s3Client.objects()).hasSize(7);
+        // Sequencialmente seriam 6 x 250ms + 400ms = 1900ms.
+        assertThat(elapsed).isLessThan(slowest.plusMillis(300));
+    }
+
+    @Test
+    void perRequestConcurrencyCapLimitsParallelUploads() throws IOException {
+        storageService = new StorageServiceImpl(s3Client, presigner, executor, new PartBufferPool(DataSize.ofMegabytes(5), 1), mediaIndex, API_URL, BUCKET, 2, Duration.ofMinutes(10));
+        s3Client.setPutLatency(call -> Duration.ofMillis(200));
+
+        long start = System.nanoTime();
+        storageService.uploadImages("aniversario", images(4));
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(elapsed).isGreaterThanOrEqualTo(Duration.ofMillis(400));
+    }
+
+    @Test
+    void failedUploadKeepsStoredObjectsForRetry() throws IOException {
+        s3Client.setPutLatency(call -> call.content().length == sizeOf(2) ? Duration.ofMillis(150) : Duration.ZERO);
+        s3Client.setFailingPuts(call -> call.content().length == sizeOf(2));
+
+        assertThatThrownBy(() -> storageService.uploadImages("aniversario", images(5)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("foto-2.jpg");
+        assertThat(s3Client.objects()).hasSize(4);
+
+        s3Client.setFailingPuts(call -> false);
+        s3Client.clearPuts();
+        storageService.uploadImages("aniversario", images(5));
+
+        assertThat(s3Client.puts()).hasSize(1);
+        assertThat(s3Client.objects()).hasSize(5);
+    }
+
+    @Test
+    void repeatedContentIsStoredOnceAndReusesTheUrl() throws IOException {
+        List<String> first = storageService.uploadImages("aniversario", images(3));
+        s3Client.clearPuts();
+
+        List<String> second = storageService.uploadImages("casamento", images(3));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(s3Client.puts()).isEmpty();
+        assertThat(s3Client.objects()).hasSize(3);
+    }
+
+    @Test
+    void directUploadIsPresignedForTheSlugAndVerifiedWithHead() throws IOException {
+        DirectUploadResponse upload = storageService.presignUpload("aniversario", MediaKind.IMAGE, "foto.jpg", "image/jpeg", 2048);
+
+        assertThat(upload.getObjectKey()).startsWith("images/aniversario_").endsWith(".jpg");
+        assertThat(upload.getMethod()).isEqualTo("PUT");
+        assertThat(upload.getUploadUrl())
+                .startsWith("https://example.supabase.co/storage/v1/s3/" + BUCKET + "/images/aniversario_")
+                .contains("X-Amz-Signature=");
+        assertThat(upload.getHeaders()).containsEntry("content-type", "image/jpeg").containsEntry("content-length", "2048");
+
+        // Simula o PUT que o cliente faz direto no bucket.
+        s3Client.putObject(PutObjectRequest.builder().bucket(BUCKET).key(upload.getObjectKey()).contentType("image/jpeg").build(),
+                RequestBody.fromBytes(new byte[2048]));
+
+        assertThat(storageService.verifyDirectUpload(MediaKind.IMAGE, upload.getObjectKey(), 4096))
+                .endsWith("/images%2F" + upload.getObjectKey().substring("images/".length()));
+        assertThatThrownBy(() -> storageService.verifyDirectUpload(MediaKind.IMAGE, upload.getObjectKey(), 1024))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(s3Client.objects()).doesNotContainKey(upload.getObjectKey());
+    }
+
+    private MediaObjectRepository inMemoryMediaObjectRepository() {
+        MediaObjectRepository repository = mock(MediaObjectRepository.class);
+        when(repository.touch(anyString())).thenAnswer(call -> mediaObjects.containsKey(call.<String>getArgument(0)) ? 1 : 0);
+        when(repository.findById(anyString())).thenAnswer(call -> Optional.ofNullable(mediaObjects.get(call.<String>getArgument(0))));
+        when(repository.insertIfAbsent(anyString(), anyString(), anyString(), nullable(String.class), anyLong())).thenAnswer(call -> {
+            MediaObject mediaObject = new MediaObject(call.getArgument(0), call.getArgument(1), call.getArgument(2),
+                    call.getArgument(3), call.<Long>getArgument(4), 0, null, null);
+            return mediaObjects.putIfAbsent(mediaObject.getContentHash(), mediaObject) == null ? 1 : 0;
+        });
+        return repository;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static List<MultipartFile> images(int count) {
+        List<MultipartFile> files = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            files.add(new MockMultipartFile("files", "foto-" + i + ".jpg", "image/jpeg", new byte[sizeOf(i)]));
+        }
+        return files;
+    }
+
+    private static int sizeOf(int index) {
+        return 1024 + index;
+    }
+}
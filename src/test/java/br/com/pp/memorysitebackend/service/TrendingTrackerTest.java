@@ -0,0 +1,119 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.TrendingPage;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+class TrendingTrackerTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+    private static final Duration DAY = Duration.ofHours(24);
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+    private final TrendingTracker tracker = new TrendingTracker(Duration.ofMinutes(5), 3, List.of(DAY, HOUR), 10, clock);
+
+    @Test
+    void ranksPagesByViewsWithinEachWindow() {
+        view("ana-e-joao", 5);
+        view("bodas-de-prata", 2);
+        clock.advance(Duration.ofHours(2));
+        view("bodas-de-prata", 4);
+        tracker.refresh();
+
+        assertThat(tracker.top(HOUR, 10).pages()).extracting(TrendingPage::getSlug).containsExactly("bodas-de-prata");
+        assertThat(tracker.top(DAY, 10).pages()).extracting(TrendingPage::getSlug, TrendingPage::getViews)
+                .containsExactly(
+                        tuple("bodas-de-prata", 6L),
+                        tuple("ana-e-joao", 5L));
+    }
+
+    @Test
+    void dropsViewsOlderThanTheLargestWindow() {
+        view("ana-e-joao", 5);
+        clock.advance(Duration.ofHours(25));
+        view("bodas-de-prata", 1);
+        tracker.refresh();
+
+        assertThat(tracker.top(DAY, 10).pages()).extracting(TrendingPage::getSlug).containsExactly("bodas-de-prata");
+    }
+
+    @Test
+    void keepsHeavyHittersWhenBucketIsFull() {
+        view("ana-e-joao", 10);
+        for (int i = 0; i < 20; i++) {
+            view("pagina-" + i, 1);
+        }
+        tracker.refresh();
+
+        TrendingPage top = tracker.top(HOUR, 1).pages().get(0);
+        assertThat(top.getSlug()).isEqualTo("ana-e-joao");
+        assertThat(top.getMinViews()).isEqualTo(10);
+    }
+
+    @Test
+    void upperBoundCoversViewsDroppedByFullBuckets() {
+        view("ana-e-joao", 1);
+        view("bodas-de-prata", 5);
+        view("casamento", 5);
+        // Bucket cheio: "ana-e-joao" tem o menor contador e é descartada.
+        view("formatura", 1);
+        clock.advance(Duration.ofMinutes(5));
+        view("ana-e-joao", 3);
+        tracker.refresh();
+
+        TrendingPage page = tracker.top(HOUR, 10).pages().stream()
+                .filter(candidate -> candidate.getSlug().equals("ana-e-joao"))
+                .findFirst().orElseThrow();
+        assertThat(page.getMinViews()).isEqualTo(3);
+        assertThat(page.getMaxViews()).isEqualTo(4);
+    }
+
+    @Test
+    void rejectsWindowsThatAreNotTracked() {
+        assertThatThrownBy(() -> tracker.top(Duration.ofHours(6), 10)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void view(String slug, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(slug);
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
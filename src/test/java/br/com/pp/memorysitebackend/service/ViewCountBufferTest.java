@@ -0,0 +1,63 @@
+package br.com.pp.memorysitebackend.service;
+
+import br.com.pp.memorysitebackend.dto.MemoryPageResponse;
+import br.com.pp.memorysitebackend.repository.MemoryPageRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ViewCountBufferTest {
+
+    private final MemoryPageRepository memoryPageRepository = mock(MemoryPageRepository.class);
+    private final MemoryPageCache memoryPageCache = new MemoryPageCache(100, Duration.ofMinutes(10));
+    private final ViewCountBuffer viewCountBuffer = new ViewCountBuffer(memoryPageRepository, memoryPageCache);
+
+    @Test
+    void flushUpdatesTheCachedCountWithoutReloadingThePage() {
+        AtomicInteger loads = new AtomicInteger();
+        memoryPageCache.get("ana", slug -> {
+            loads.incrementAndGet();
+            return Optional.of(page(slug, 10));
+        });
+        viewCountBuffer.increment("ana");
+        viewCountBuffer.increment("ana");
+        // O banco devolve o total com as visualizações gravadas por outras instâncias.
+        when(memoryPageRepository.incrementViewCounts(Map.of("ana", 2L))).thenReturn(Map.of("ana", 25L));
+
+        viewCountBuffer.flush();
+
+        assertThat(viewCountBuffer.pending("ana")).isZero();
+        assertThat(memoryPageCache.get("ana", slug -> {
+            loads.incrementAndGet();
+            return Optional.of(page(slug, 0));
+        })).map(MemoryPageResponse::getViewCount).contains(25L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void failedFlushKeepsViewsPending() {
+        viewCountBuffer.increment("ana");
+        when(memoryPageRepository.incrementViewCounts(Map.of("ana", 1L))).thenThrow(new IllegalStateException("banco fora"));
+
+        viewCountBuffer.flush();
+
+        assertThat(viewCountBuffer.pending("ana")).isEqualTo(1);
+    }
+
+    private static MemoryPageResponse page(String slug, long viewCount) {
+        MemoryPageResponse response = new MemoryPageResponse();
+        response.setSlug(slug);
+        response.setImageUrls(List.of());
+        response.setImageVariants(Map.of());
+        response.setViewCount(viewCount);
+        return response;
+    }
+}
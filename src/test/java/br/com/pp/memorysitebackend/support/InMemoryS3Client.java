@@ -0,0 +1,321 @@
+package br.com.pp.memorysitebackend.support;
+
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadResponse;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsRequest;
+import software.amazon.awssdk.services.s3.model.DeleteObjectsResponse;
+import software.amazon.awssdk.services.s3.model.DeletedObject;
+import software.amazon.awssdk.services.s3.model.GetObjectRequest;
+import software.amazon.awssdk.services.s3.model.GetObjectResponse;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectResponse;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Request;
+import software.amazon.awssdk.services.s3.model.ListObjectsV2Response;
+import software.amazon.awssdk.services.s3.model.ListPartsRequest;
+import software.amazon.awssdk.services.s3.model.ListPartsResponse;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.ObjectIdentifier;
+import software.amazon.awssdk.services.s3.model.Part;
+import software.amazon.awssdk.services.s3.model.PutObjectRequest;
+import software.amazon.awssdk.services.s3.model.PutObjectResponse;
+import software.amazon.awssdk.services.s3.model.S3Error;
+import software.amazon.awssdk.services.s3.model.S3Exception;
+import software.amazon.awssdk.services.s3.model.S3Object;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.model.UploadPartResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * S3 em memória para testes: guarda os objetos (e uploads em partes) em mapas e permite simular latência e
+ * falhas por envio.
+ */
+public class InMemoryS3Client implements S3Client {
+
+    public record StoredObject(byte[] content, String contentType, Instant lastModified) {
+    }
+
+    public record PutCall(String key, String contentType, byte[] content) {
+    }
+
+    /**
+     * Upload em partes aberto; o uploadId só vale para a chave com que foi criado, como no S3.
+     */
+    public record MultipartUpload(String key, String contentType, Map<Integer, byte[]> parts) {
+    }
+
+    private final Map<String, StoredObject> objects = new ConcurrentHashMap<>();
+    private final Map<String, MultipartUpload> multipartUploads = new ConcurrentHashMap<>();
+    private final List<PutCall> puts = new CopyOnWriteArrayList<>();
+    private volatile Function<PutCall, Duration> putLatency = call -> Duration.ZERO;
+    private volatile Predicate<PutCall> failingPuts = call -> false;
+    private volatile Predicate<String> failingDeletes = key -> false;
+    private volatile int listPageSize = 1000;
+
+    public void setPutLatency(Function<PutCall, Duration> putLatency) {
+        this.putLatency = putLatency;
+    }
+
+    public void setFailingPuts(Predicate<PutCall> failingPuts) {
+        this.failingPuts = failingPuts;
+    }
+
+    /**
+     * Chaves que o DeleteObjects recusa remover (devolvidas em {@code errors}, como faz o S3).
+     */
+    public void setFailingDeletes(Predicate<String> failingDeletes) {
+        this.failingDeletes = failingDeletes;
+    }
+
+    /**
+     * Máximo de objetos por página da listagem quando a requisição não define {@code maxKeys}.
+     */
+    public void setListPageSize(int listPageSize) {
+        this.listPageSize = listPageSize;
+    }
+
+    public Map<String, StoredObject> objects() {
+        return objects;
+    }
+
+    /**
+     * Uploads em partes ainda não concluídos nem cancelados, por uploadId.
+     */
+    public Map<String, MultipartUpload> multipartUploads() {
+        return multipartUploads;
+    }
+
+    /**
+     * PUTs recebidos (inclusive os que falharam), na ordem de chegada.
+     */
+    public List<PutCall> puts() {
+        return puts;
+    }
+
+    public void clearPuts() {
+        puts.clear();
+    }
+
+    @Override
+    public PutObjectResponse putObject(PutObjectRequest request, RequestBody requestBody) {
+        PutCall call;
+        try (InputStream content = requestBody.contentStreamProvider().newStream()) {
+            call = new PutCall(request.key(), request.contentType(), content.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        puts.add(call);
+        sleep(putLatency.apply(call));
+        if (failingPuts.test(call)) {
+            throw S3Exception.builder().statusCode(500).message("Falha simulada para " + request.key()).build();
+        }
+        objects.put(call.key(), new StoredObject(call.content(), call.contentType(), Instant.now()));
+        return (PutObjectResponse) PutObjectResponse.builder()
+                .eTag("\"" + request.key().hashCode() + "\"")
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build())
+                .build();
+    }
+
+    @Override
+    public <ReturnT> ReturnT getObject(GetObjectRequest request,
+                                       ResponseTransformer<GetObjectResponse, ReturnT> responseTransformer) {
+        StoredObject object = objects.get(request.key());
+        if (object == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("Objeto não encontrado: " + request.key()).build();
+        }
+        GetObjectResponse response = GetObjectResponse.builder()
+                .contentType(object.contentType())
+                .contentLength((long) object.content().length)
+                .build();
+        try {
+            return responseTransformer.transform(response,
+                    AbortableInputStream.create(new ByteArrayInputStream(object.content())));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public HeadObjectResponse headObject(HeadObjectRequest request) {
+        StoredObject object = objects.get(request.key());
+        if (object == null) {
+            throw NoSuchKeyException.builder().statusCode(404).message("Objeto não encontrado: " + request.key()).build();
+        }
+        return HeadObjectResponse.builder()
+                .contentType(object.contentType())
+                .contentLength((long) object.content().length)
+                .build();
+    }
+
+    @Override
+    public ListObjectsV2Response listObjectsV2(ListObjectsV2Request request) {
+        int maxKeys = request.maxKeys() != null ? request.maxKeys() : listPageSize;
+        List<String> keys = objects.keySet().stream()
+                .filter(key -> request.prefix() == null || key.startsWith(request.prefix()))
+                .filter(key -> request.continuationToken() == null || key.compareTo(request.continuationToken()) > 0)
+                .sorted()
+                .limit(maxKeys + 1L)
+                .toList();
+        boolean truncated = keys.size() > maxKeys;
+        List<S3Object> contents = keys.stream()
+                .limit(maxKeys)
+                .map(key -> {
+                    StoredObject object = objects.get(key);
+                    return object == null ? null : S3Object.builder()
+                            .key(key)
+                            .size((long) object.content().length)
+                            .lastModified(object.lastModified())
+                            .build();
+                })
+                .filter(Objects::nonNull)
+                .toList();
+        return ListObjectsV2Response.builder()
+                .contents(contents)
+                .keyCount(contents.size())
+                .isTruncated(truncated)
+                .nextContinuationToken(truncated ? keys.get(maxKeys - 1) : null)
+                .build();
+    }
+
+    @Override
+    public CreateMultipartUploadResponse createMultipartUpload(CreateMultipartUploadRequest request) {
+        String uploadId = UUID.randomUUID().toString();
+        multipartUploads.put(uploadId, new MultipartUpload(request.key(), request.contentType(), new ConcurrentSkipListMap<>()));
+        return CreateMultipartUploadResponse.builder().bucket(request.bucket()).key(request.key()).uploadId(uploadId).build();
+    }
+
+    @Override
+    public UploadPartResponse uploadPart(UploadPartRequest request, RequestBody requestBody) {
+        MultipartUpload upload = multipartUpload(request.key(), request.uploadId());
+        try (InputStream content = requestBody.contentStreamProvider().newStream()) {
+            upload.parts().put(request.partNumber(), content.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return UploadPartResponse.builder().eTag(partETag(request.partNumber(), upload.parts().get(request.partNumber()))).build();
+    }
+
+    @Override
+    public ListPartsResponse listParts(ListPartsRequest request) {
+        MultipartUpload upload = multipartUpload(request.key(), request.uploadId());
+        int marker = request.partNumberMarker() != null ? request.partNumberMarker() : 0;
+        int maxParts = request.maxParts() != null ? request.maxParts() : 1000;
+        List<Part> parts = upload.parts().entrySet().stream()
+                .filter(part -> part.getKey() > marker)
+                .map(part -> Part.builder()
+                        .partNumber(part.getKey())
+                        .eTag(partETag(part.getKey(), part.getValue()))
+                        .size((long) part.getValue().length)
+                        .build())
+                .toList();
+        boolean truncated = parts.size() > maxParts;
+        List<Part> page = parts.subList(0, Math.min(parts.size(), maxParts));
+        return ListPartsResponse.builder()
+                .parts(page)
+                .isTruncated(truncated)
+                .nextPartNumberMarker(truncated ? page.get(page.size() - 1).partNumber() : null)
+                .build();
+    }
+
+    @Override
+    public CompleteMultipartUploadResponse completeMultipartUpload(CompleteMultipartUploadRequest request) {
+        MultipartUpload upload = multipartUpload(request.key(), request.uploadId());
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        for (CompletedPart part : request.multipartUpload().parts()) {
+            byte[] partContent = upload.parts().get(part.partNumber());
+            if (partContent == null || !partETag(part.partNumber(), partContent).equals(part.eTag())) {
+                throw S3Exception.builder().statusCode(400).message("Parte inválida: " + part.partNumber()).build();
+            }
+            content.writeBytes(partContent);
+        }
+        multipartUploads.remove(request.uploadId());
+        objects.put(request.key(), new StoredObject(content.toByteArray(), upload.contentType(), Instant.now()));
+        return CompleteMultipartUploadResponse.builder().bucket(request.bucket()).key(request.key()).build();
+    }
+
+    @Override
+    public AbortMultipartUploadResponse abortMultipartUpload(AbortMultipartUploadRequest request) {
+        multipartUpload(request.key(), request.uploadId());
+        multipartUploads.remove(request.uploadId());
+        return AbortMultipartUploadResponse.builder().build();
+    }
+
+    @Override
+    public DeleteObjectsResponse deleteObjects(DeleteObjectsRequest request) {
+        List<String> keys = request.delete().objects().stream().map(ObjectIdentifier::key).toList();
+        List<S3Error> errors = keys.stream()
+                .filter(failingDeletes)
+                .map(key -> S3Error.builder().key(key).code("InternalError").build())
+                .toList();
+        List<DeletedObject> deleted = keys.stream()
+                .filter(failingDeletes.negate())
+                .peek(objects::remove)
+                .map(key -> DeletedObject.builder().key(key).build())
+                .toList();
+        return (DeleteObjectsResponse) DeleteObjectsResponse.builder()
+                .deleted(deleted)
+                .errors(errors)
+                .sdkHttpResponse(SdkHttpResponse.builder().statusCode(200).build())
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private MultipartUpload multipartUpload(String key, String uploadId) {
+        MultipartUpload upload = multipartUploads.get(uploadId);
+        if (upload == null || !upload.key().equals(key)) {
+            throw NoSuchUploadException.builder().statusCode(404).message("Upload não encontrado: " + uploadId).build();
+        }
+        return upload;
+    }
+
+    private static String partETag(int partNumber, byte[] content) {
+        return "\"" + partNumber + "-" + Arrays.hashCode(content) + "\"";
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}